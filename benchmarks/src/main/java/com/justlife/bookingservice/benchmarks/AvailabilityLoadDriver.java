@@ -0,0 +1,97 @@
+package com.justlife.bookingservice.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires availability requests at a running booking-service with a fixed number in flight and reports
+ * throughput and latency percentiles. Run it once against the service on the platform thread pool and
+ * once with {@code BOOKING_VIRTUAL_THREADS=true} on Java 21 to compare the two request models.
+ * <p>
+ * Arguments, all optional: base url, concurrent requests, total requests, first date, number of days.
+ */
+public class AvailabilityLoadDriver {
+
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    // bookable 2-hour starts between 08:00 and 20:00
+    private static final int SLOTS_PER_DAY = 25;
+
+    public static void main(String[] args) throws InterruptedException {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 50_000;
+        LocalDate firstDate = args.length > 3 ? LocalDate.parse(args[3]) : LocalDate.now().plusDays(1);
+        int days = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+
+        System.out.printf("Warming up with %d requests%n", Math.min(requests, 5_000));
+        run(client, baseUrl, concurrency, Math.min(requests, 5_000), firstDate, days);
+
+        System.out.printf("Measuring %d requests, %d in flight%n", requests, concurrency);
+        Result result = run(client, baseUrl, concurrency, requests, firstDate, days);
+        result.print();
+    }
+
+    private static Result run(HttpClient client, String baseUrl, int concurrency, int requests,
+                              LocalDate firstDate, int days) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int index = i;
+            LocalDateTime startTime = firstDate.plusDays(i % days).atTime(8, 0).plusMinutes(30L * ((i / days) % SLOTS_PER_DAY));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/bookings/availability?date="
+                            + startTime.toLocalDate() + "&startTime=" + DATE_TIME.format(startTime)
+                            + "&duration=2&workersRequired=" + (1 + i % 3)))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+            long sent = System.nanoTime();
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (failure != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        CompletableFuture.allOf(futures).exceptionally(failure -> null).join();
+        return new Result(requests, errors.get(), System.nanoTime() - start, latencies);
+    }
+
+    private record Result(int requests, int errors, long elapsedNanos, long[] latencies) {
+
+        void print() {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            System.out.printf("requests   %d (%d errors)%n", requests, errors);
+            System.out.printf("throughput %.0f req/s%n", requests / (elapsedNanos / 1e9));
+            System.out.printf("p50        %.1f ms%n", percentile(sorted, 0.50));
+            System.out.printf("p99        %.1f ms%n", percentile(sorted, 0.99));
+            System.out.printf("max        %.1f ms%n", sorted[sorted.length - 1] / 1e6);
+        }
+
+        private static double percentile(long[] sorted, double fraction) {
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.dto.AvailabilityCalendar;
+import com.justlife.bookingservice.model.Worker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the availability check that runs on every availability request and booking, over synthetic
+ * fleets of 100 to 50,000 workers with 0 to 4 bookings each on the day checked.
+ * <ul>
+ *     <li>{@code checkIfOutsideWorkingHours}: the working day and hours test, over the whole fleet</li>
+ *     <li>{@code checkAvailability}: picking free workers from a fleet whose bookings are already indexed</li>
+ *     <li>{@code checkAvailabilityByDateTime}: the request path, paging workers from a repository, with the
+ *     schedule index already warm</li>
+ *     <li>{@code getAvailabilityCalendar}: every bookable start time of the day, read from the slot
+ *     availability view, which should not grow with the fleet</li>
+ *     <li>{@code checkAvailabilityByDateTimeColdIndex}: the same with an empty index, so every page of
+ *     workers also loads their bookings</li>
+ * </ul>
+ * Run with {@code java -jar target/benchmarks.jar AvailabilityCheckBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AvailabilityCheckBenchmark {
+
+    // the second booking start, so a worker's bookings decide whether they are free
+    private static final LocalDateTime START_TIME = SyntheticFleet.BOOKING_STARTS[1];
+
+    private static final LocalDateTime END_TIME = START_TIME.plusHours(2);
+
+    private static final int DURATION = 2;
+
+    private static final int WORKERS_REQUIRED = 3;
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int fleetSize;
+
+    @Param({"0", "2", "4"})
+    public int bookingsPerWorker;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private SyntheticFleet fleet;
+
+    private CheckAvailabilityService warmService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fleet = new SyntheticFleet(fleetSize, bookingsPerWorker);
+        WorkerScheduleIndex index = new WorkerScheduleIndex(fleet.workerScheduleRepository(), 90);
+        index.preload(SyntheticFleet.DAY, fleet.workerIds());
+        warmService = newService(index);
+        warmService.getAvailabilityCalendar(SyntheticFleet.DAY);
+    }
+
+    @Benchmark
+    public int checkIfOutsideWorkingHours() {
+        int outside = 0;
+        for (Worker worker : fleet.workers) {
+            if (CheckAvailabilityService.checkIfOutsideWorkingHours(worker, START_TIME, END_TIME)) {
+                outside++;
+            }
+        }
+        return outside;
+    }
+
+    @Benchmark
+    public List<Worker> checkAvailability() {
+        return warmService.checkAvailabilityByDateTime(fleet.workers, START_TIME, DURATION, WORKERS_REQUIRED);
+    }
+
+    @Benchmark
+    public List<Worker> checkAvailabilityByDateTime() {
+        return warmService.checkAvailabilityByDateTime(START_TIME, DURATION, WORKERS_REQUIRED);
+    }
+
+    @Benchmark
+    public AvailabilityCalendar getAvailabilityCalendar() {
+        return warmService.getAvailabilityCalendar(SyntheticFleet.DAY);
+    }
+
+    @Benchmark
+    public List<Worker> checkAvailabilityByDateTimeColdIndex(ColdIndex coldIndex) {
+        return coldIndex.service.checkAvailabilityByDateTime(START_TIME, DURATION, WORKERS_REQUIRED);
+    }
+
+    private CheckAvailabilityService newService(WorkerScheduleIndex index) {
+        // the booking detail repository is only written to, never read on the availability path
+        return new CheckAvailabilityService(fleet.workerRepository(), null, fleet.workerScheduleRepository(), index,
+                new SlotAvailabilityView(fleet.workerRepository(), index, 90), meterRegistry);
+    }
+
+    /**
+     * A service with an empty schedule index for every call.
+     */
+    @State(Scope.Thread)
+    public static class ColdIndex {
+
+        private CheckAvailabilityService service;
+
+        @Setup(Level.Invocation)
+        public void setUp(AvailabilityCheckBenchmark benchmark) {
+            service = benchmark.newService(new WorkerScheduleIndex(benchmark.fleet.workerScheduleRepository(), 90));
+        }
+    }
+}
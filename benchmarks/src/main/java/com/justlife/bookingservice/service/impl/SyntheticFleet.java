@@ -0,0 +1,121 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.model.Vehicle;
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.WorkingHours;
+import com.justlife.bookingservice.model.projection.BookingInterval;
+import com.justlife.bookingservice.repository.WorkerRepository;
+import com.justlife.bookingservice.repository.WorkerScheduleRepository;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * A generated fleet of workers with their bookings on one day, served by in-memory stand-ins for the
+ * repositories the availability check reads from.
+ * <p>
+ * Three workers share each vehicle, one in seven works on Fridays and one in five works 10:00-18:00
+ * instead of 08:00-22:00. Each worker gets {@code bookingsPerWorker} two-hour bookings, picked at random
+ * from {@link #BOOKING_STARTS}, which leave room for the 30-minute break between them.
+ */
+final class SyntheticFleet {
+
+    static final LocalDate DAY = LocalDate.of(2024, 1, 15);
+
+    static final LocalDateTime[] BOOKING_STARTS = {
+            DAY.atTime(8, 0), DAY.atTime(10, 30), DAY.atTime(13, 0), DAY.atTime(15, 30), DAY.atTime(18, 0)
+    };
+
+    private static final WorkingHours SHORT_DAY = new WorkingHours(10 * 60, 18 * 60);
+
+    final List<Worker> workers;
+
+    private final Map<Long, List<BookingInterval>> bookingsByWorker;
+
+    SyntheticFleet(int size, int bookingsPerWorker) {
+        if (bookingsPerWorker > BOOKING_STARTS.length) {
+            throw new IllegalArgumentException("At most " + BOOKING_STARTS.length + " bookings per worker");
+        }
+        Random random = new Random(42);
+        List<Worker> generated = new ArrayList<>(size);
+        Map<Long, List<BookingInterval>> bookings = new HashMap<>();
+        long bookingId = 0;
+        for (long id = 1; id <= size; id++) {
+            generated.add(Worker.builder()
+                    .id(id)
+                    .name("Worker " + id)
+                    .available(true)
+                    .workingHours(id % 5 == 0 ? SHORT_DAY : WorkingHours.DEFAULT)
+                    .workingOnFridays(id % 7 == 0)
+                    .vehicle(Vehicle.builder().id((id + 2) / 3).name("Vehicle " + (id + 2) / 3).build())
+                    .build());
+
+            List<LocalDateTime> starts = new ArrayList<>(List.of(BOOKING_STARTS));
+            Collections.shuffle(starts, random);
+            List<BookingInterval> workerBookings = new ArrayList<>(bookingsPerWorker);
+            for (LocalDateTime start : starts.subList(0, bookingsPerWorker)) {
+                workerBookings.add(new BookingInterval(id, ++bookingId, start, start.plusHours(2)));
+            }
+            bookings.put(id, workerBookings);
+        }
+        this.workers = List.copyOf(generated);
+        this.bookingsByWorker = bookings;
+    }
+
+    List<Long> workerIds() {
+        return workers.stream().map(Worker::getId).toList();
+    }
+
+    /**
+     * Serves keyset pages of the fleet. Worker ids run from 1 to the fleet size, so a page starts at index {@code afterId}.
+     */
+    WorkerRepository workerRepository() {
+        return stub(WorkerRepository.class, "findByIdGreaterThanOrderByIdAsc", args -> {
+            int from = (int) Math.min((Long) args[0], workers.size());
+            int to = (int) Math.min((long) from + ((Limit) args[1]).max(), workers.size());
+            return workers.subList(from, to);
+        });
+    }
+
+    WorkerScheduleRepository workerScheduleRepository() {
+        return stub(WorkerScheduleRepository.class, "findBookingIntervals", args -> {
+            LocalDateTime from = (LocalDateTime) args[1];
+            LocalDateTime to = (LocalDateTime) args[2];
+            List<BookingInterval> intervals = new ArrayList<>();
+            for (Object workerId : (Collection<?>) args[0]) {
+                for (BookingInterval interval : bookingsByWorker.getOrDefault(workerId, List.of())) {
+                    if (!interval.startTime().isBefore(from) && interval.startTime().isBefore(to)) {
+                        intervals.add(interval);
+                    }
+                }
+            }
+            return intervals;
+        });
+    }
+
+    private static <T> T stub(Class<T> type, String methodName, Function<Object[], Object> answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals(methodName)) {
+                return answer.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+        }));
+    }
+}
@@ -0,0 +1,19 @@
+package com.justlife.bookingservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@code @Scheduled} jobs: the booking outbox publisher and purge, the nightly purges of past days
+ * from the worker schedule index and the slot availability view, and the availability feed heartbeats.
+ * Turned off with {@code booking.scheduling.enabled=false}, for instance on nodes that should only serve
+ * requests. Such a node still relays booking events to its own listeners, but at least one node must keep
+ * scheduling on, or no booking events are published at all; and its resident days are then only dropped
+ * by size, and its feed subscribers get no heartbeats.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "booking.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
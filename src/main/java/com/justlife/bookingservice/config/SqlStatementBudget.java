@@ -0,0 +1,25 @@
+package com.justlife.bookingservice.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the SQL statement budget of a request handler, in place of {@code booking.sql-budget.max-statements}.
+ * Handlers whose statement count grows with their input, such as imports and streams, are exempted with
+ * {@link #UNLIMITED}; their statements are still counted and published.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlStatementBudget {
+
+    int UNLIMITED = 0;
+
+    /**
+     * The most statements a request to the handler may run, or {@link #UNLIMITED}.
+     */
+    int value();
+}
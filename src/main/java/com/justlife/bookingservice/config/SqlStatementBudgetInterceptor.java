@@ -0,0 +1,30 @@
+package com.justlife.bookingservice.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies a handler's {@link SqlStatementBudget} to the request once the handler is known. Runs after
+ * {@link SqlStatementMetricsFilter} has started counting the request with the default budget.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlStatementBudgetInterceptor implements HandlerInterceptor {
+
+    private final SqlStatementCounter sqlStatementCounter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            SqlStatementBudget budget = handlerMethod.getMethodAnnotation(SqlStatementBudget.class);
+            if (budget != null) {
+                sqlStatementCounter.budget(budget.value());
+            }
+        }
+        return true;
+    }
+}
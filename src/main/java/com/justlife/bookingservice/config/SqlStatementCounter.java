@@ -0,0 +1,158 @@
+package com.justlife.bookingservice.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. {@link SqlStatementMetricsFilter}
+ * resets the count when a request starts and publishes it when the request ends.
+ * <p>
+ * While a request is being counted it is also held to a statement budget: once it runs more than
+ * {@code booking.sql-budget.max-statements} statements, or the handler's own {@link SqlStatementBudget},
+ * it is reported by the filter, or, with {@code booking.sql-budget.fail-requests=true}, failed on the
+ * statement that goes over. The statement repeated most often is tracked too, so a per-row lookup loop
+ * (N+1) shows up by its SQL.
+ */
+@Component
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Tally> STATEMENTS = ThreadLocal.withInitial(Tally::new);
+
+    private final int maxStatements;
+
+    private final boolean failRequests;
+
+    public SqlStatementCounter(@Value("${booking.sql-budget.max-statements:20}") int maxStatements,
+                               @Value("${booking.sql-budget.fail-requests:false}") boolean failRequests) {
+        if (maxStatements < 1) {
+            throw new IllegalArgumentException("SQL statement budget must be positive");
+        }
+        this.maxStatements = maxStatements;
+        this.failRequests = failRequests;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Tally tally = STATEMENTS.get();
+        tally.statements++;
+        if (tally.budgeted) {
+            tally.repeated(sql);
+            if (failRequests && tally.overBudget()) {
+                throw new BudgetExceededException("Request ran more than " + tally.budget
+                        + " SQL statements; most repeated (" + tally.mostRepeatedCount + "x): " + tally.mostRepeated);
+            }
+        }
+        return sql;
+    }
+
+    /**
+     * Starts counting a request on the current thread and holds it to the default statement budget until
+     * {@link #reset()} is called again.
+     */
+    public void startRequest() {
+        Tally tally = STATEMENTS.get();
+        tally.clear();
+        tally.budgeted = true;
+        tally.budget = maxStatements;
+    }
+
+    /**
+     * Replaces the budget of the request being counted on the current thread, for instance with its
+     * handler's {@link SqlStatementBudget}.
+     *
+     * @param maxStatements the most statements the request may run, or {@link SqlStatementBudget#UNLIMITED}
+     */
+    public void budget(int maxStatements) {
+        Tally tally = STATEMENTS.get();
+        if (maxStatements == SqlStatementBudget.UNLIMITED) {
+            tally.budgeted = false;
+        } else {
+            tally.budget = maxStatements;
+        }
+    }
+
+    public void reset() {
+        STATEMENTS.get().clear();
+    }
+
+    public int count() {
+        return STATEMENTS.get().statements;
+    }
+
+    /**
+     * The budget of the request being counted on the current thread.
+     */
+    public int budget() {
+        return STATEMENTS.get().budget;
+    }
+
+    public boolean overBudget() {
+        return STATEMENTS.get().overBudget();
+    }
+
+    /**
+     * The statement run most often since the request started, or {@code null} outside a request.
+     */
+    public String mostRepeatedStatement() {
+        return STATEMENTS.get().mostRepeated;
+    }
+
+    public int mostRepeatedCount() {
+        return STATEMENTS.get().mostRepeatedCount;
+    }
+
+    /**
+     * Thrown from inside the query that takes a request over its SQL statement budget when
+     * {@code booking.sql-budget.fail-requests} is on. It is not an {@link IllegalStateException}, so it
+     * surfaces as a server error rather than a rejected request.
+     */
+    public static class BudgetExceededException extends RuntimeException {
+
+        public BudgetExceededException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class Tally {
+
+        private int statements;
+
+        private boolean budgeted;
+
+        private int budget;
+
+        private Map<String, Integer> repeats;
+
+        private String mostRepeated;
+
+        private int mostRepeatedCount;
+
+        private void repeated(String sql) {
+            if (repeats == null) {
+                repeats = new HashMap<>();
+            }
+            int count = repeats.merge(sql, 1, Integer::sum);
+            if (count > mostRepeatedCount) {
+                mostRepeated = sql;
+                mostRepeatedCount = count;
+            }
+        }
+
+        private boolean overBudget() {
+            return budgeted && statements > budget;
+        }
+
+        private void clear() {
+            statements = 0;
+            budgeted = false;
+            budget = 0;
+            repeats = null;
+            mostRepeated = null;
+            mostRepeatedCount = 0;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.justlife.bookingservice.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Publishes how many SQL statements each request ran, per endpoint, as
+ * {@code http.server.requests.sql.statements}. Statements run on other threads, such as the parallel
+ * days of a range query or the writer of a streamed response, are not counted.
+ * <p>
+ * Requests that go over their {@link SqlStatementCounter} budget are logged with the statement they
+ * repeated most, which is usually the loop to look at.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    private final SqlStatementCounter sqlStatementCounter;
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        sqlStatementCounter.startRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("http.server.requests.sql.statements")
+                    .description("SQL statements run while handling a request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+                    .register(meterRegistry)
+                    .record(sqlStatementCounter.count());
+            if (sqlStatementCounter.overBudget()) {
+                log.warn("{} {} ran {} SQL statements, over the budget of {}; most repeated ({}x): {}",
+                        request.getMethod(), uri == null ? request.getRequestURI() : uri, sqlStatementCounter.count(),
+                        sqlStatementCounter.budget(), sqlStatementCounter.mostRepeatedCount(),
+                        sqlStatementCounter.mostRepeatedStatement());
+            }
+            sqlStatementCounter.reset();
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.justlife.bookingservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.justlife.bookingservice.config.SqlStatementBudget;
+import com.justlife.bookingservice.dto.AvailabilityCalendar;
+import com.justlife.bookingservice.dto.BookingResult;
 import com.justlife.bookingservice.model.Booking;
-import com.justlife.bookingservice.model.BookingDetail;
 import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.projection.BookingDetailView;
+import com.justlife.bookingservice.service.IAvailabilityFeed;
 import com.justlife.bookingservice.service.IBookingService;
 import com.justlife.bookingservice.service.ICheckAvailabilityService;
 import io.swagger.v3.oas.annotations.Operation;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -18,26 +24,49 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import static com.justlife.bookingservice.util.Constants.DATE_PATTERN;
 import static com.justlife.bookingservice.util.Constants.DATE_TIME_PATTERN;
+import static com.justlife.bookingservice.util.Constants.MAX_RANGE_DAYS;
 
 @RestController
 @RequestMapping("/bookings")
-@RequiredArgsConstructor
 public class BookingController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final IBookingService bookingService;
 
     private final ICheckAvailabilityService availabilityCheckService;
 
+    private final ObjectMapper objectMapper;
+
+    private final IAvailabilityFeed availabilityFeed;
+
+    private final int maxBatchSize;
+
+    public BookingController(IBookingService bookingService, ICheckAvailabilityService availabilityCheckService,
+                             ObjectMapper objectMapper, IAvailabilityFeed availabilityFeed,
+                             @Value("${booking.batch.max-size:50000}") int maxBatchSize) {
+        this.bookingService = bookingService;
+        this.availabilityCheckService = availabilityCheckService;
+        this.objectMapper = objectMapper;
+        this.availabilityFeed = availabilityFeed;
+        this.maxBatchSize = maxBatchSize;
+    }
+
     @Operation(summary = "Check availability of workers/cleaning professionals")
     @GetMapping("/availability")
     public ResponseEntity<List<Worker>> availabilityCheck(@RequestParam String date, @RequestParam(required = false) String startTime,
@@ -66,6 +95,54 @@ public class BookingController {
         }
     }
 
+    @Operation(summary = "Check availability of workers/cleaning professionals on every day of a date range")
+    @GetMapping("/availability/range")
+    // reads the workers in pages of 200, then the whole range's bookings in one query
+    @SqlStatementBudget(100)
+    public ResponseEntity<Map<LocalDate, List<Worker>>> availabilityRange(@RequestParam String from, @RequestParam String to,
+                                                                          @RequestParam(required = false, defaultValue = "1") Integer workersRequired) {
+        try {
+            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(DATE_PATTERN);
+            LocalDate parsedFrom = LocalDate.parse(from, dateFormatter);
+            LocalDate parsedTo = LocalDate.parse(to, dateFormatter);
+
+            if (workersRequired < 1 || workersRequired > 3) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid number of workers/cleaning professionals required");
+            }
+            if (parsedTo.isBefore(parsedFrom) || ChronoUnit.DAYS.between(parsedFrom, parsedTo) >= MAX_RANGE_DAYS) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Date range must span 1 to " + MAX_RANGE_DAYS + " days");
+            }
+
+            return ResponseEntity.ok(availabilityCheckService.checkAvailabilityForRange(parsedFrom, parsedTo, workersRequired));
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format", e);
+        }
+    }
+
+    @Operation(summary = "List every bookable start time of a day, per duration and number of workers")
+    @GetMapping("/availability/calendar")
+    // a day the slot view has not built yet is read in pages of 200 workers, two statements per page
+    @SqlStatementBudget(100)
+    public ResponseEntity<AvailabilityCalendar> availabilityCalendar(@RequestParam String date) {
+        try {
+            LocalDate parsedDate = LocalDate.parse(date, DateTimeFormatter.ofPattern(DATE_PATTERN));
+            return ResponseEntity.ok(availabilityCheckService.getAvailabilityCalendar(parsedDate));
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format", e);
+        }
+    }
+
+    @Operation(summary = "Subscribe to worker availability changes, optionally for one day, as Server-Sent Events")
+    @GetMapping(value = "/availability/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter availabilityFeed(@RequestParam(required = false) String date) {
+        try {
+            LocalDate parsedDate = date == null ? null : LocalDate.parse(date, DateTimeFormatter.ofPattern(DATE_PATTERN));
+            return availabilityFeed.subscribe(parsedDate);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format", e);
+        }
+    }
+
     @Operation(summary = "Create a new booking")
     @PostMapping
     public ResponseEntity<Booking> createBooking(@RequestBody Booking booking) {
@@ -79,6 +156,18 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.createBooking(booking));
     }
 
+    @Operation(summary = "Create many bookings at once")
+    @PostMapping("/batch")
+    @SqlStatementBudget(SqlStatementBudget.UNLIMITED)
+    public ResponseEntity<List<BookingResult>> createBookings(@RequestBody List<Booking> bookings) {
+        if (bookings.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch of " + bookings.size()
+                    + " bookings is over the limit of " + maxBatchSize + " per request; split it into smaller batches");
+        }
+
+        return ResponseEntity.ok(bookingService.createBookings(bookings));
+    }
+
     @Operation(summary = "Update an existing booking")
     @PutMapping("/{id}")
     public ResponseEntity<Booking> updateBooking(@PathVariable Long id, @RequestBody Booking booking) {
@@ -92,9 +181,46 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.updateBooking(id, booking));
     }
 
-    @Operation(summary = "Get all bookings")
+    @Operation(summary = "List bookings page by page, starting after the given booking detail id")
     @GetMapping
-    public ResponseEntity<List<BookingDetail>> getAllBookingDetails() {
-        return ResponseEntity.of(Optional.ofNullable(bookingService.getAllBookingDetails()));
+    public ResponseEntity<List<BookingDetailView>> getBookingDetails(@RequestParam(required = false) Long afterId,
+                                                                 @RequestParam(required = false, defaultValue = "100") Integer limit,
+                                                                 @RequestParam(required = false) String from, @RequestParam(required = false) String to,
+                                                                 @RequestParam(required = false) Long workerId) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        return ResponseEntity.ok(bookingService.getBookingDetails(afterId, limit, parseDateTime(from), parseDateTime(to), workerId));
+    }
+
+    @Operation(summary = "Stream all matching bookings as newline-delimited JSON")
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    @SqlStatementBudget(SqlStatementBudget.UNLIMITED)
+    public ResponseEntity<StreamingResponseBody> streamBookingDetails(@RequestParam(required = false) String from, @RequestParam(required = false) String to,
+                                                                      @RequestParam(required = false) Long workerId) {
+        LocalDateTime parsedFrom = parseDateTime(from);
+        LocalDateTime parsedTo = parseDateTime(to);
+
+        StreamingResponseBody body = outputStream -> bookingService.streamBookingDetails(parsedFrom, parsedTo, workerId, bookingDetail -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(bookingDetail));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    private LocalDateTime parseDateTime(String dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(dateTime, DateTimeFormatter.ofPattern(DATE_TIME_PATTERN));
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format", e);
+        }
     }
 }
@@ -0,0 +1,93 @@
+package com.justlife.bookingservice.controller;
+
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.projection.BookingDetailView;
+import com.justlife.bookingservice.service.IReactiveQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import static com.justlife.bookingservice.util.Constants.DATE_PATTERN;
+import static com.justlife.bookingservice.util.Constants.DATE_TIME_PATTERN;
+
+/**
+ * Non-blocking variants of the booking read endpoints. The request thread is released while the
+ * database is queried and the response is written once the result is complete.
+ */
+@RestController
+@RequestMapping("/reactive/bookings")
+@RequiredArgsConstructor
+public class ReactiveBookingController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final IReactiveQueryService reactiveQueryService;
+
+    @Operation(summary = "Check availability of workers/cleaning professionals without blocking a request thread")
+    @GetMapping("/availability")
+    public Mono<ResponseEntity<List<Worker>>> availabilityCheck(@RequestParam String date, @RequestParam(required = false) String startTime,
+                                                                @RequestParam(required = false) Integer duration, @RequestParam(required = false, defaultValue = "1") Integer workersRequired) {
+        try {
+            LocalDate parsedDate = LocalDate.parse(date, DateTimeFormatter.ofPattern(DATE_PATTERN));
+
+            if (workersRequired < 1 || workersRequired > 3) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid number of workers/cleaning professionals required");
+            }
+
+            if (duration != null && duration != 2 && duration != 4) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Must be 2 or 4 hours.");
+            }
+
+            if (startTime == null || duration == null) {
+                return reactiveQueryService.checkAvailabilityForDate(parsedDate, workersRequired)
+                        .collectList()
+                        .map(ResponseEntity::ok);
+            }
+            LocalDateTime parsedStartTime = LocalDateTime.parse(startTime, DateTimeFormatter.ofPattern(DATE_TIME_PATTERN));
+            return reactiveQueryService.checkAvailabilityByDateTime(parsedStartTime, duration, workersRequired)
+                    .collectList()
+                    .map(ResponseEntity::ok);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format", e);
+        }
+    }
+
+    @Operation(summary = "List bookings page by page without blocking a request thread")
+    @GetMapping
+    public Mono<ResponseEntity<List<BookingDetailView>>> getBookingDetails(@RequestParam(required = false) Long afterId,
+                                                                           @RequestParam(required = false, defaultValue = "100") Integer limit,
+                                                                           @RequestParam(required = false) String from, @RequestParam(required = false) String to,
+                                                                           @RequestParam(required = false) Long workerId) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        return reactiveQueryService.getBookingDetails(afterId, limit, parseDateTime(from), parseDateTime(to), workerId)
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+
+    private LocalDateTime parseDateTime(String dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(dateTime, DateTimeFormatter.ofPattern(DATE_TIME_PATTERN));
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid date format", e);
+        }
+    }
+}
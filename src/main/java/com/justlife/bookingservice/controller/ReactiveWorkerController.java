@@ -0,0 +1,29 @@
+package com.justlife.bookingservice.controller;
+
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.service.IReactiveQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/reactive/workers")
+@RequiredArgsConstructor
+public class ReactiveWorkerController {
+
+    private final IReactiveQueryService reactiveQueryService;
+
+    @Operation(summary = "Get all workers/cleaning professionals without blocking a request thread")
+    @GetMapping
+    public Mono<ResponseEntity<List<Worker>>> getAllWorkers() {
+        return reactiveQueryService.getAllWorkers()
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+}
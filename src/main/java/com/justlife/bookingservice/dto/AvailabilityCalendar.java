@@ -0,0 +1,24 @@
+package com.justlife.bookingservice.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Every bookable start time of a day, for each booking duration and crew size.
+ *
+ * @param date    the day the calendar is for
+ * @param entries one entry per duration and crew size
+ */
+public record AvailabilityCalendar(LocalDate date, List<CalendarEntry> entries) {
+
+    /**
+     * The start times at which a booking of the given shape can be assigned a crew from one vehicle.
+     *
+     * @param duration        the booking duration in hours
+     * @param workersRequired the crew size
+     * @param startTimes      the bookable start times, in order
+     */
+    public record CalendarEntry(int duration, int workersRequired, List<LocalDateTime> startTimes) {
+    }
+}
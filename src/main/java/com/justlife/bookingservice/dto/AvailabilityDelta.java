@@ -0,0 +1,23 @@
+package com.justlife.bookingservice.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A worker-day whose availability changed, as pushed to availability feed subscribers. It carries the
+ * worker-day's busy slots after the change, so a delta delivered twice or late does no harm.
+ *
+ * @param eventId   the id of the booking event that caused the change
+ * @param date      the day that changed
+ * @param workerId  the worker whose day changed
+ * @param change    BUSY if a booking moved onto the day, FREE if one moved off it
+ * @param busySlots the start of every 30-minute slot the worker cannot be booked for, breaks included
+ */
+public record AvailabilityDelta(Long eventId, LocalDate date, Long workerId, Change change, List<LocalDateTime> busySlots) {
+
+    public enum Change {
+        BUSY,
+        FREE
+    }
+}
@@ -0,0 +1,22 @@
+package com.justlife.bookingservice.dto;
+
+import com.justlife.bookingservice.model.Booking;
+
+/**
+ * Outcome of one booking in a batch import.
+ *
+ * @param index   the position of the booking in the request
+ * @param success whether the booking was created
+ * @param booking the created booking, or null if it was rejected
+ * @param error   the reason the booking was rejected, or null if it was created
+ */
+public record BookingResult(int index, boolean success, Booking booking, String error) {
+
+    public static BookingResult created(int index, Booking booking) {
+        return new BookingResult(index, true, booking, null);
+    }
+
+    public static BookingResult rejected(int index, String error) {
+        return new BookingResult(index, false, null, error);
+    }
+}
@@ -0,0 +1,28 @@
+package com.justlife.bookingservice.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published by the booking service whenever a booking is created or rescheduled.
+ *
+ * @param bookingId         the id of the booking that changed
+ * @param previousStartTime the start time before the change, or null for a new booking
+ * @param startTime         the current start time of the booking
+ * @param endTime           the current end time of the booking
+ * @param workerIds         the ids of every worker linked to the booking after the change
+ */
+public record BookingChangedEvent(Long bookingId, LocalDateTime previousStartTime, LocalDateTime startTime,
+                                  LocalDateTime endTime, List<Long> workerIds) {
+
+    /**
+     * The change a relayed outbox event describes, which may have been committed on another node.
+     *
+     * @param event the relayed event
+     * @return the booking change
+     */
+    public static BookingChangedEvent of(BookingEvent event) {
+        return new BookingChangedEvent(event.bookingId(), event.previousStartTime(), event.startTime(),
+                event.endTime(), event.workerIds());
+    }
+}
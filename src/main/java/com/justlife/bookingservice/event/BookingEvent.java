@@ -0,0 +1,30 @@
+package com.justlife.bookingservice.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A committed booking change as handed to consumers by the booking outbox. Events are delivered at least
+ * once, in {@code publishSeq} order. Only {@code publishSeq} follows commit order: a consumer that keeps
+ * the last one it has seen can resume after it, while {@code eventId} is not ordered and only identifies
+ * the change.
+ *
+ * @param eventId           the id of the outbox entry the event was read from
+ * @param publishSeq        the position of the event in the published stream, assigned when it is first published
+ * @param type              whether the booking was created or updated
+ * @param bookingId         the id of the booking that changed
+ * @param previousStartTime the start time before the change, or null for a new booking
+ * @param startTime         the current start time of the booking
+ * @param endTime           the current end time of the booking
+ * @param workerIds         the ids of every worker linked to the booking after the change
+ * @param occurredAt        when the change was recorded
+ */
+public record BookingEvent(Long eventId, Long publishSeq, Type type, Long bookingId,
+                           LocalDateTime previousStartTime, LocalDateTime startTime, LocalDateTime endTime,
+                           List<Long> workerIds, LocalDateTime occurredAt) {
+
+    public enum Type {
+        BOOKING_CREATED,
+        BOOKING_UPDATED
+    }
+}
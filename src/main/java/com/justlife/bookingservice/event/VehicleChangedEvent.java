@@ -0,0 +1,9 @@
+package com.justlife.bookingservice.event;
+
+/**
+ * Published by the vehicle service whenever a vehicle is created, updated or deleted.
+ *
+ * @param vehicleId the id of the vehicle that changed
+ */
+public record VehicleChangedEvent(Long vehicleId) {
+}
@@ -0,0 +1,9 @@
+package com.justlife.bookingservice.event;
+
+/**
+ * Published by the worker service whenever a worker is created, updated or deleted.
+ *
+ * @param workerId the id of the worker that changed
+ */
+public record WorkerChangedEvent(Long workerId) {
+}
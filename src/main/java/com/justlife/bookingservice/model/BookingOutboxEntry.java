@@ -0,0 +1,64 @@
+package com.justlife.bookingservice.model;
+
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.model.converter.LongListConverter;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A booking change waiting to be published, written in the same transaction as the change itself so
+ * that it is published if and only if the change commits.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "booking_outbox")
+public class BookingOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_outbox_seq")
+    @SequenceGenerator(name = "booking_outbox_seq", sequenceName = "booking_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private BookingEvent.Type eventType;
+
+    private Long bookingId;
+
+    private LocalDateTime previousStartTime;
+
+    private LocalDateTime startTime;
+
+    private LocalDateTime endTime;
+
+    @Convert(converter = LongListConverter.class)
+    private List<Long> workerIds;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime publishedAt;
+
+    private Long publishSeq;
+
+    public BookingEvent toEvent() {
+        return new BookingEvent(id, publishSeq, eventType, bookingId, previousStartTime, startTime, endTime, workerIds, createdAt);
+    }
+}
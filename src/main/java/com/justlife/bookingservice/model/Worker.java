@@ -1,16 +1,26 @@
 package com.justlife.bookingservice.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.justlife.bookingservice.model.converter.WorkingHoursConverter;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.DayOfWeek;
 
 @Getter
 @Setter
@@ -18,8 +28,13 @@ import lombok.Setter;
 @NoArgsConstructor
 @Builder
 @Entity
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Worker {
 
+    private static final int EVERY_DAY = 0b1111111;
+
+    private static final int EVERY_DAY_BUT_FRIDAY = EVERY_DAY & ~dayBit(DayOfWeek.FRIDAY);
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -28,11 +43,36 @@ public class Worker {
 
     private boolean available;
 
-    private String workingHours = "08:00-22:00";
+    @Builder.Default
+    @Convert(converter = WorkingHoursConverter.class)
+    private WorkingHours workingHours = WorkingHours.DEFAULT;
 
     private boolean workingOnFridays = false;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vehicle_id")
     private Vehicle vehicle;
+
+    // bumped whenever the worker is assigned to a booking
+    @JsonIgnore
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Checks if the worker works on the given day of the week.
+     *
+     * @param dayOfWeek the day to check
+     * @return true if the worker works on that day, false otherwise
+     */
+    @JsonIgnore
+    public boolean isWorkingOn(DayOfWeek dayOfWeek) {
+        int workingDays = workingOnFridays ? EVERY_DAY : EVERY_DAY_BUT_FRIDAY;
+        return (workingDays & dayBit(dayOfWeek)) != 0;
+    }
+
+    private static int dayBit(DayOfWeek dayOfWeek) {
+        return 1 << dayOfWeek.ordinal();
+    }
 }
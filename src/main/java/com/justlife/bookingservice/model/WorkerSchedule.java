@@ -0,0 +1,40 @@
+package com.justlife.bookingservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One worker's share of a booking, copied from the booking and its booking detail so that a worker's
+ * bookings for a time range can be read from a single index without joining.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+public class WorkerSchedule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "worker_schedule_seq")
+    @SequenceGenerator(name = "worker_schedule_seq", sequenceName = "worker_schedule_seq", allocationSize = 50)
+    private Long id;
+
+    private Long workerId;
+
+    private Long bookingId;
+
+    private LocalDateTime startTime;
+
+    private LocalDateTime endTime;
+}
@@ -0,0 +1,76 @@
+package com.justlife.bookingservice.model;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.time.LocalTime;
+
+/**
+ * Daily working window of a worker, as minutes from midnight.
+ *
+ * @param startMinute the minute of the day the worker starts
+ * @param endMinute   the minute of the day the worker stops
+ * @param unreadable  the stored value, if it could not be read as working hours; null otherwise
+ */
+public record WorkingHours(int startMinute, int endMinute, String unreadable) {
+
+    public static final WorkingHours DEFAULT = new WorkingHours(8 * 60, 22 * 60);
+
+    public WorkingHours {
+        if (unreadable == null && (startMinute < 0 || endMinute > 24 * 60 || startMinute >= endMinute)) {
+            throw new IllegalArgumentException("Invalid working hours");
+        }
+    }
+
+    public WorkingHours(int startMinute, int endMinute) {
+        this(startMinute, endMinute, null);
+    }
+
+    /**
+     * Working hours for a stored value that cannot be read, such as an overnight window. They contain no
+     * time at all, so the worker is not offered until the value is fixed, and are written back unchanged.
+     *
+     * @param value the stored value
+     * @return empty working hours that keep the stored value
+     */
+    public static WorkingHours unreadable(String value) {
+        return new WorkingHours(0, 0, value);
+    }
+
+    /**
+     * Parses working hours written as {@code HH:mm-HH:mm}.
+     *
+     * @param value the working hours, e.g. 08:00-22:00
+     * @return the parsed working hours
+     */
+    @JsonCreator
+    public static WorkingHours parse(String value) {
+        String[] workingHours = value.split("-");
+        if (workingHours.length != 2) {
+            throw new IllegalArgumentException("Invalid working hours: " + value);
+        }
+        LocalTime startWorkTime = LocalTime.parse(workingHours[0].trim());
+        LocalTime endWorkTime = LocalTime.parse(workingHours[1].trim());
+        return new WorkingHours(startWorkTime.toSecondOfDay() / 60, endWorkTime.toSecondOfDay() / 60);
+    }
+
+    /**
+     * Checks if the given minute range lies within the working hours.
+     *
+     * @param fromMinute the start of the range, in minutes from midnight
+     * @param toMinute   the end of the range, in minutes from midnight
+     * @return true if the range is within the working hours, false otherwise
+     */
+    public boolean contains(int fromMinute, int toMinute) {
+        return unreadable == null && fromMinute >= startMinute && toMinute <= endMinute;
+    }
+
+    @JsonValue
+    @Override
+    public String toString() {
+        if (unreadable != null) {
+            return unreadable;
+        }
+        return String.format("%02d:%02d-%02d:%02d", startMinute / 60, startMinute % 60, endMinute / 60, endMinute % 60);
+    }
+}
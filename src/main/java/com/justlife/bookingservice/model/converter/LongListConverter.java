@@ -0,0 +1,28 @@
+package com.justlife.bookingservice.model.converter;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a short list of ids in a comma separated column.
+ */
+@Converter
+public class LongListConverter implements AttributeConverter<List<Long>, String> {
+
+    @Override
+    public String convertToDatabaseColumn(List<Long> ids) {
+        return ids == null ? null : ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    @Override
+    public List<Long> convertToEntityAttribute(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.isEmpty() ? List.of() : Arrays.stream(value.split(",")).map(Long::valueOf).toList();
+    }
+}
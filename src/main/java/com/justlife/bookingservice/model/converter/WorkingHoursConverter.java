@@ -0,0 +1,39 @@
+package com.justlife.bookingservice.model.converter;
+
+import com.justlife.bookingservice.model.WorkingHours;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keeps working hours in their existing {@code HH:mm-HH:mm} column while the entity holds them pre-parsed.
+ * <p>
+ * Rows written before working hours were validated can hold values {@link WorkingHours} rejects, such as
+ * overnight windows or malformed times. Those are logged and read as {@link WorkingHours#unreadable}, so one
+ * bad row does not fail every query that loads workers: the worker is never available, rather than given
+ * hours nobody chose, and saving the worker writes the stored value back unchanged.
+ */
+@Slf4j
+@Converter
+public class WorkingHoursConverter implements AttributeConverter<WorkingHours, String> {
+
+    @Override
+    public String convertToDatabaseColumn(WorkingHours workingHours) {
+        return workingHours == null ? null : workingHours.toString();
+    }
+
+    @Override
+    public WorkingHours convertToEntityAttribute(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return WorkingHours.parse(value);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            log.warn("Unreadable working hours '{}', the worker will not be available until they are fixed", value, e);
+            return WorkingHours.unreadable(value);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.justlife.bookingservice.model.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking detail as listed to clients, flattened from the booking and worker it links.
+ */
+public record BookingDetailView(Long id, Long bookingId, LocalDateTime startTime, LocalDateTime endTime, int duration,
+                                int requiredWorkers, Long workerId, String workerName) {
+}
@@ -0,0 +1,9 @@
+package com.justlife.bookingservice.model.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * The time range a worker is booked for, without the booking and worker entity graphs.
+ */
+public record BookingInterval(Long workerId, Long bookingId, LocalDateTime startTime, LocalDateTime endTime) {
+}
@@ -1,12 +1,35 @@
 package com.justlife.bookingservice.repository;
 
 import com.justlife.bookingservice.model.BookingDetail;
+import com.justlife.bookingservice.model.projection.BookingDetailView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface BookingDetailRepository extends JpaRepository<BookingDetail, Long> {
 
-    List<BookingDetail> findByWorkerIdAndBookingStartTimeBetween(Long professionalId, LocalDateTime startTime, LocalDateTime endTime);
+    String BOOKING_DETAIL_VIEW = "select new com.justlife.bookingservice.model.projection.BookingDetailView("
+            + "bd.id, b.id, b.startTime, b.endTime, b.duration, b.requiredWorkers, w.id, w.name) "
+            + "from BookingDetail bd join bd.booking b join bd.worker w ";
+
+    @Query("select bd.worker.id from BookingDetail bd where bd.booking.id = :bookingId")
+    List<Long> findWorkerIdsByBookingId(Long bookingId);
+
+    @Query(BOOKING_DETAIL_VIEW + "where bd.id > :afterId and (:workerId is null or w.id = :workerId) "
+            + "and (:from is null or b.startTime >= :from) and (:to is null or b.startTime < :to) "
+            + "order by bd.id")
+    List<BookingDetailView> findPage(Long afterId, Long workerId, LocalDateTime from, LocalDateTime to, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(BOOKING_DETAIL_VIEW + "where (:workerId is null or w.id = :workerId) "
+            + "and (:from is null or b.startTime >= :from) and (:to is null or b.startTime < :to) "
+            + "order by bd.id")
+    Stream<BookingDetailView> streamAll(Long workerId, LocalDateTime from, LocalDateTime to);
 }
@@ -0,0 +1,35 @@
+package com.justlife.bookingservice.repository;
+
+import com.justlife.bookingservice.model.BookingOutboxEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BookingOutboxRepository extends JpaRepository<BookingOutboxEntry, Long> {
+
+    // held until the publishing transaction ends, so one publisher at a time numbers and publishes entries
+    @Query(value = "select pg_try_advisory_xact_lock(hashtext('booking_outbox_publisher'))", nativeQuery = true)
+    boolean tryLockPublisher();
+
+    @Query(value = "select nextval('{h-schema}booking_outbox_publish_seq')", nativeQuery = true)
+    long nextPublishSeq();
+
+    // entries already numbered by a publish that failed part way go first, so they keep their place
+    @Query("select e from BookingOutboxEntry e where e.publishedAt is null order by e.publishSeq asc nulls last, e.id asc")
+    List<BookingOutboxEntry> findUnpublished(Limit limit);
+
+    @Query("select max(e.publishSeq) from BookingOutboxEntry e")
+    Long findMaxPublishSeq();
+
+    List<BookingOutboxEntry> findByPublishSeqGreaterThanOrderByPublishSeqAsc(Long publishSeq, Limit limit);
+
+    @Modifying
+    @Query("delete from BookingOutboxEntry e where e.publishedAt < :before")
+    int deletePublishedBefore(LocalDateTime before);
+}
@@ -1,9 +1,38 @@
 package com.justlife.bookingservice.repository;
 
 import com.justlife.bookingservice.model.Worker;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface WorkerRepository extends JpaRepository<Worker, Long> {
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = "vehicle")
+    List<Worker> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Workers that can be part of a crew, that is those with a vehicle, in id order. With
+     * {@code fridaysOnly} only those who also work on Fridays are returned.
+     */
+    @EntityGraph(attributePaths = "vehicle")
+    @Query("select w from Worker w where w.vehicle is not null "
+            + "and (:fridaysOnly = false or w.workingOnFridays = true) order by w.id")
+    List<Worker> findCrewCandidates(boolean fridaysOnly);
+
+    /**
+     * Bumps the versions of the given workers with one update, which also holds their rows until the
+     * transaction ends. Workers already loaded in the transaction keep their old version in memory.
+     *
+     * @return the number of workers bumped
+     */
+    @Modifying
+    @Query("update Worker w set w.version = w.version + 1 where w.id in :ids")
+    int incrementVersions(Collection<Long> ids);
+}
@@ -0,0 +1,25 @@
+package com.justlife.bookingservice.repository;
+
+import com.justlife.bookingservice.model.WorkerSchedule;
+import com.justlife.bookingservice.model.projection.BookingInterval;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WorkerScheduleRepository extends JpaRepository<WorkerSchedule, Long> {
+
+    @Query("select new com.justlife.bookingservice.model.projection.BookingInterval(ws.workerId, ws.bookingId, ws.startTime, ws.endTime) "
+            + "from WorkerSchedule ws "
+            + "where ws.workerId in :workerIds and ws.startTime >= :from and ws.startTime < :to")
+    List<BookingInterval> findBookingIntervals(Collection<Long> workerIds, LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("update WorkerSchedule ws set ws.startTime = :startTime, ws.endTime = :endTime where ws.bookingId = :bookingId")
+    int reschedule(Long bookingId, LocalDateTime startTime, LocalDateTime endTime);
+}
@@ -0,0 +1,38 @@
+package com.justlife.bookingservice.repository.reactive;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Statement;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Runs a query on a pooled R2DBC connection and maps its rows. The connection goes back to the pool
+ * when the rows are read, the query fails or the subscriber cancels.
+ */
+final class R2dbcQuery {
+
+    private R2dbcQuery() {
+    }
+
+    /**
+     * @param sql        the query, with {@code $1}, {@code $2}, ... placeholders
+     * @param parameters the values of the placeholders, in order
+     * @param rowMapper  maps one row to a result
+     */
+    static <T> Flux<T> select(ConnectionFactory connectionFactory, String sql, List<?> parameters,
+                              Function<Readable, T> rowMapper) {
+        return Flux.usingWhen(connectionFactory.create(),
+                connection -> {
+                    Statement statement = connection.createStatement(sql);
+                    for (int i = 0; i < parameters.size(); i++) {
+                        statement.bind(i, parameters.get(i));
+                    }
+                    return Flux.from(statement.execute()).flatMap(result -> result.map(rowMapper));
+                },
+                Connection::close);
+    }
+}
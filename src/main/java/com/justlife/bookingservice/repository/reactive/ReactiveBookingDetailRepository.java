@@ -0,0 +1,50 @@
+package com.justlife.bookingservice.repository.reactive;
+
+import com.justlife.bookingservice.model.projection.BookingDetailView;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Non-blocking reads of booking details over R2DBC.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveBookingDetailRepository {
+
+    private final ConnectionFactory connectionFactory;
+
+    public Flux<BookingDetailView> findPage(Long afterId, Long workerId, LocalDateTime from, LocalDateTime to, int limit) {
+        StringBuilder sql = new StringBuilder("select bd.id, b.id as booking_id, b.start_time, b.end_time, b.duration, "
+                + "b.required_workers, w.id as worker_id, w.name as worker_name "
+                + "from booking_detail bd join booking b on b.id = bd.booking_id join worker w on w.id = bd.worker_id "
+                + "where bd.id > $1");
+        List<Object> parameters = new ArrayList<>(List.of(afterId));
+        // only the given filters are bound, as PostgreSQL cannot type a parameter that is only compared with null
+        if (workerId != null) {
+            parameters.add(workerId);
+            sql.append(" and w.id = $").append(parameters.size());
+        }
+        if (from != null) {
+            parameters.add(from);
+            sql.append(" and b.start_time >= $").append(parameters.size());
+        }
+        if (to != null) {
+            parameters.add(to);
+            sql.append(" and b.start_time < $").append(parameters.size());
+        }
+        parameters.add(limit);
+        sql.append(" order by bd.id limit $").append(parameters.size());
+
+        return R2dbcQuery.select(connectionFactory, sql.toString(), parameters,
+                row -> new BookingDetailView(row.get("id", Long.class), row.get("booking_id", Long.class),
+                        row.get("start_time", LocalDateTime.class), row.get("end_time", LocalDateTime.class),
+                        row.get("duration", Integer.class), row.get("required_workers", Integer.class),
+                        row.get("worker_id", Long.class), row.get("worker_name", String.class)));
+    }
+}
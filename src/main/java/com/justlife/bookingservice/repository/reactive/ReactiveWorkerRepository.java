@@ -0,0 +1,51 @@
+package com.justlife.bookingservice.repository.reactive;
+
+import com.justlife.bookingservice.model.Vehicle;
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.converter.WorkingHoursConverter;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Non-blocking reads of workers, with their vehicle, over R2DBC.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveWorkerRepository {
+
+    private static final String SELECT_WORKER = "select w.id, w.name, w.available, w.working_hours, w.working_on_fridays, "
+            + "w.version, v.id as vehicle_id, v.name as vehicle_name "
+            + "from worker w left join vehicle v on v.id = w.vehicle_id ";
+
+    private static final WorkingHoursConverter WORKING_HOURS_CONVERTER = new WorkingHoursConverter();
+
+    private final ConnectionFactory connectionFactory;
+
+    public Flux<Worker> findAll() {
+        return R2dbcQuery.select(connectionFactory, SELECT_WORKER + "order by w.id", List.of(),
+                ReactiveWorkerRepository::toWorker);
+    }
+
+    public Flux<Worker> findPage(Long afterId, int limit) {
+        return R2dbcQuery.select(connectionFactory, SELECT_WORKER + "where w.id > $1 order by w.id limit $2",
+                List.of(afterId, limit), ReactiveWorkerRepository::toWorker);
+    }
+
+    private static Worker toWorker(Readable row) {
+        Long vehicleId = row.get("vehicle_id", Long.class);
+        return Worker.builder()
+                .id(row.get("id", Long.class))
+                .name(row.get("name", String.class))
+                .available(Boolean.TRUE.equals(row.get("available", Boolean.class)))
+                .workingHours(WORKING_HOURS_CONVERTER.convertToEntityAttribute(row.get("working_hours", String.class)))
+                .workingOnFridays(Boolean.TRUE.equals(row.get("working_on_fridays", Boolean.class)))
+                .version(row.get("version", Long.class))
+                .vehicle(vehicleId == null ? null : new Vehicle(vehicleId, row.get("vehicle_name", String.class)))
+                .build();
+    }
+}
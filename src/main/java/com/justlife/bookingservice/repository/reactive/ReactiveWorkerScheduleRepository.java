@@ -0,0 +1,29 @@
+package com.justlife.bookingservice.repository.reactive;
+
+import com.justlife.bookingservice.model.projection.BookingInterval;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Non-blocking reads of the worker schedule table over R2DBC.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveWorkerScheduleRepository {
+
+    private final ConnectionFactory connectionFactory;
+
+    public Flux<BookingInterval> findBookingIntervals(Collection<Long> workerIds, LocalDateTime from, LocalDateTime to) {
+        return R2dbcQuery.select(connectionFactory, "select worker_id, booking_id, start_time, end_time from worker_schedule "
+                        + "where worker_id = any($1) and start_time >= $2 and start_time < $3",
+                List.of(workerIds.toArray(Long[]::new), from, to),
+                row -> new BookingInterval(row.get("worker_id", Long.class), row.get("booking_id", Long.class),
+                        row.get("start_time", LocalDateTime.class), row.get("end_time", LocalDateTime.class)));
+    }
+}
@@ -0,0 +1,17 @@
+package com.justlife.bookingservice.service;
+
+import com.justlife.bookingservice.event.BookingEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+
+public interface IAvailabilityFeed {
+
+    SseEmitter subscribe(LocalDate date);
+
+    void onBookingEvent(BookingEvent event);
+
+    void sendHeartbeats();
+
+    int subscriberCount();
+}
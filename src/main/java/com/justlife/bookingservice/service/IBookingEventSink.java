@@ -0,0 +1,19 @@
+package com.justlife.bookingservice.service;
+
+import com.justlife.bookingservice.event.BookingEvent;
+
+/**
+ * Where the booking outbox publishes committed booking changes, such as a message broker. Each event is
+ * handed to every sink bean once, on whichever node publishes it, so sinks suit consumers outside this
+ * service; listeners on every node use the in-JVM bus instead. A sink that throws has the event, and the
+ * ones after it, retried on the next poll.
+ * <p>
+ * {@link #publish} is called inside the outbox transaction, which holds the publisher lock and the batch
+ * being published. A sink must therefore only hand the event off, to a queue or an asynchronous client, and
+ * return; it must never wait for delivery. Throwing, for instance because its queue is full, is the
+ * way to push back.
+ */
+public interface IBookingEventSink {
+
+    void publish(BookingEvent event);
+}
@@ -0,0 +1,12 @@
+package com.justlife.bookingservice.service;
+
+import com.justlife.bookingservice.event.BookingChangedEvent;
+
+public interface IBookingOutbox {
+
+    void record(BookingChangedEvent event);
+
+    int publishPending();
+
+    int purgePublished();
+}
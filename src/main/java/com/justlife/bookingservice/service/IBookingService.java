@@ -1,14 +1,21 @@
 package com.justlife.bookingservice.service;
 
+import com.justlife.bookingservice.dto.BookingResult;
 import com.justlife.bookingservice.model.Booking;
-import com.justlife.bookingservice.model.BookingDetail;
+import com.justlife.bookingservice.model.projection.BookingDetailView;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IBookingService {
     Booking createBooking(Booking booking);
 
     Booking updateBooking(Long bookingId, Booking updatedBooking);
 
-    List<BookingDetail> getAllBookingDetails();
+    List<BookingResult> createBookings(List<Booking> bookings);
+
+    List<BookingDetailView> getBookingDetails(Long afterId, int limit, LocalDateTime from, LocalDateTime to, Long workerId);
+
+    void streamBookingDetails(LocalDateTime from, LocalDateTime to, Long workerId, Consumer<BookingDetailView> consumer);
 }
@@ -1,16 +1,32 @@
 package com.justlife.bookingservice.service;
 
+import com.justlife.bookingservice.dto.AvailabilityCalendar;
 import com.justlife.bookingservice.model.Booking;
 import com.justlife.bookingservice.model.Worker;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 public interface ICheckAvailabilityService {
     List<Worker> checkAvailabilityForDate(LocalDate date, int workersRequired);
 
+    List<Worker> checkAvailabilityForDate(List<Worker> workers, LocalDate date, int workersRequired);
+
+    Map<LocalDate, List<Worker>> checkAvailabilityForRange(LocalDate from, LocalDate to, int workersRequired);
+
     List<Worker> checkAvailabilityByDateTime(LocalDateTime startTime, int duration, int workersRequired);
 
+    List<Worker> checkAvailabilityByDateTime(List<Worker> workers, LocalDateTime startTime, int duration, int workersRequired);
+
+    AvailabilityCalendar getAvailabilityCalendar(LocalDate date);
+
+    List<Worker> findAvailableCrew(LocalDateTime startTime, int duration, int workersRequired);
+
+    List<Worker> findAvailableCrew(List<Worker> workers, LocalDateTime startTime, int duration, int workersRequired,
+                                   Predicate<Worker> eligible);
+
     void updateWorkersAvailability(List<Worker> workers, Booking booking);
 }
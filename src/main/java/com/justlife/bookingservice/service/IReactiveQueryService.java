@@ -0,0 +1,18 @@
+package com.justlife.bookingservice.service;
+
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.projection.BookingDetailView;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface IReactiveQueryService {
+    Flux<Worker> checkAvailabilityForDate(LocalDate date, int workersRequired);
+
+    Flux<Worker> checkAvailabilityByDateTime(LocalDateTime startTime, int duration, int workersRequired);
+
+    Flux<BookingDetailView> getBookingDetails(Long afterId, int limit, LocalDateTime from, LocalDateTime to, Long workerId);
+
+    Flux<Worker> getAllWorkers();
+}
@@ -0,0 +1,32 @@
+package com.justlife.bookingservice.service;
+
+import com.justlife.bookingservice.event.BookingChangedEvent;
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.event.VehicleChangedEvent;
+import com.justlife.bookingservice.event.WorkerChangedEvent;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ISlotAvailabilityView {
+
+    /**
+     * Booking durations, in hours, the view keeps free crew sizes for.
+     */
+    List<Integer> BOOKING_DURATIONS = List.of(2, 4);
+
+    /**
+     * Largest crew a booking can ask for.
+     */
+    int MAX_CREW_SIZE = 3;
+
+    long crewStartSlots(LocalDate day, int duration, int crewSize);
+
+    void onBookingChanged(BookingChangedEvent event);
+
+    void onBookingEvent(BookingEvent event);
+
+    void onWorkerChanged(WorkerChangedEvent event);
+
+    void onVehicleChanged(VehicleChangedEvent event);
+}
@@ -0,0 +1,22 @@
+package com.justlife.bookingservice.service;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface IWorkerLockManager {
+    void lockUntilCompletion(Collection<Long> workerIds);
+
+    List<StripeStats> getStripeStats();
+
+    /**
+     * Contention counters of one lock stripe since startup.
+     *
+     * @param stripe         the stripe index
+     * @param acquisitions   how often the stripe was locked
+     * @param timeouts       how often waiting for the stripe timed out
+     * @param totalWaitNanos the total time spent waiting for the stripe
+     * @param totalHoldNanos the total time the stripe was held
+     */
+    record StripeStats(int stripe, long acquisitions, long timeouts, long totalWaitNanos, long totalHoldNanos) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.justlife.bookingservice.service;
+
+import com.justlife.bookingservice.event.BookingChangedEvent;
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.model.projection.BookingInterval;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface IWorkerScheduleIndex {
+
+    /**
+     * Length of the slots a day is divided into for {@link #busySlots}.
+     */
+    int SLOT_MINUTES = 30;
+
+    int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    void preload(LocalDate day, Collection<Long> workerIds);
+
+    void preload(LocalDate from, LocalDate to, Collection<Long> workerIds);
+
+    List<Long> missing(LocalDate day, Collection<Long> workerIds);
+
+    long changeCount(LocalDate day);
+
+    boolean load(LocalDate day, Collection<Long> workerIds, List<BookingInterval> intervals, long changeCount);
+
+    void evict(LocalDate day, Collection<Long> workerIds);
+
+    boolean isFree(Long workerId, LocalDateTime startTime, LocalDateTime endTime);
+
+    long busySlots(Long workerId, LocalDate day);
+
+    void onBookingChanged(BookingChangedEvent event);
+
+    void onBookingEvent(BookingEvent event);
+}
@@ -0,0 +1,116 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.model.BookingOutboxEntry;
+import com.justlife.bookingservice.repository.BookingOutboxRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Republishes booking events on this node's application event bus, where any bean can receive them with
+ * {@code @EventListener}. Turned off with {@code booking.outbox.in-jvm-bus.enabled}.
+ * <p>
+ * Listeners such as the schedule index, the slot availability view, the availability cache and the
+ * availability feed hold node-local state, so every node has to see every event.
+ * Rather than taking part in the shared {@code published_at} hand-off, which gives each event to the one
+ * node that claims it, every node reads the published entries itself and keeps its own cursor: the last
+ * {@link BookingEvent#publishSeq()} it has relayed. The cursor starts at the newest entry when the node
+ * starts, and the relay polls on its own thread, so it also runs on nodes with scheduling turned off.
+ * Listeners run on that thread, in publish order, and never inside a transaction.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "booking.outbox.in-jvm-bus.enabled", havingValue = "true", matchIfMissing = true)
+public class ApplicationEventBookingRelay {
+
+    private final BookingOutboxRepository bookingOutboxRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int batchSize;
+
+    private final long pollIntervalMillis;
+
+    private final ScheduledExecutorService poller;
+
+    private Long cursor;
+
+    public ApplicationEventBookingRelay(BookingOutboxRepository bookingOutboxRepository,
+                                        ApplicationEventPublisher eventPublisher,
+                                        @Value("${booking.outbox.batch-size:500}") int batchSize,
+                                        @Value("${booking.outbox.in-jvm-bus.poll-interval-ms:1000}") long pollIntervalMillis) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Outbox batch size must be positive");
+        }
+        this.bookingOutboxRepository = bookingOutboxRepository;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.pollIntervalMillis = pollIntervalMillis;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("booking-events-");
+        threadFactory.setDaemon(true);
+        this.poller = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    @PostConstruct
+    public void start() {
+        poller.scheduleWithFixedDelay(() -> {
+            try {
+                relayPending();
+            } catch (RuntimeException e) {
+                log.warn("Reading published booking events failed, retrying on the next poll", e);
+            }
+        }, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Publishes every entry numbered after the cursor, in order, and moves the cursor past them. Called
+     * from the poller thread only.
+     *
+     * @return the number of events relayed
+     */
+    int relayPending() {
+        if (cursor == null) {
+            Long newest = bookingOutboxRepository.findMaxPublishSeq();
+            cursor = newest == null ? 0L : newest;
+        }
+        int total = 0;
+        List<BookingOutboxEntry> entries;
+        do {
+            entries = bookingOutboxRepository.findByPublishSeqGreaterThanOrderByPublishSeqAsc(cursor, Limit.of(batchSize));
+            for (BookingOutboxEntry entry : entries) {
+                BookingEvent event = entry.toEvent();
+                try {
+                    eventPublisher.publishEvent(event);
+                } catch (RuntimeException e) {
+                    log.warn("Listener failed on booking event {}", event.eventId(), e);
+                }
+                cursor = event.publishSeq();
+                total++;
+            }
+        } while (entries.size() == batchSize);
+        return total;
+    }
+
+    /**
+     * Stops polling and waits for the events being relayed to reach their listeners.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        poller.shutdown();
+        if (!poller.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Booking event listeners still running at shutdown");
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.justlife.bookingservice.dto.AvailabilityDelta;
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.service.IAvailabilityFeed;
+import com.justlife.bookingservice.service.IWorkerScheduleIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes worker-day availability changes to Server-Sent Events subscribers as booking events arrive
+ * from the outbox.
+ * <p>
+ * An idle subscriber is an async request with no thread attached, so the cost of thousands of them is
+ * their connections, one list entry and a small buffer each. The list is copy-on-write because it is
+ * iterated on every event and heartbeat but only changes when a subscriber comes or goes. Each delta is
+ * serialized once and the same bytes are queued for every subscriber; a subscriber whose write fails is
+ * dropped.
+ * <p>
+ * Each SSE event's id is the booking event's {@code publishSeq}, which follows commit order, so a client can
+ * tell from {@code Last-Event-ID} which changes it has seen.
+ * <p>
+ * Deltas are built on the feed's own thread, with one schedule load per event and day, so booking events
+ * are never held up by the feed. Once {@code booking.availability-feed.queue-capacity} events are waiting
+ * there, further ones are dropped and logged. Each subscriber's deltas then wait in a buffer of
+ * {@code booking.availability-feed.subscriber-buffer} entries, written out by a pool of
+ * {@code booking.availability-feed.writer-threads} threads. A stalled connection only holds the writer it
+ * is blocked on: once its buffer is full it is dropped, and closed when that write returns, while the
+ * other writers keep serving everyone else.
+ */
+@Slf4j
+@Service
+public class AvailabilityFeed implements IAvailabilityFeed, MeterBinder {
+
+    private static final String EVENT_NAME = "availability";
+
+    private final IWorkerScheduleIndex workerScheduleIndex;
+
+    private final ObjectMapper objectMapper;
+
+    private final long timeoutMillis;
+
+    private final int subscriberBuffer;
+
+    private final ThreadPoolExecutor fanOut;
+
+    private final ThreadPoolExecutor writers;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public AvailabilityFeed(IWorkerScheduleIndex workerScheduleIndex, ObjectMapper objectMapper,
+                            @Value("${booking.availability-feed.timeout-ms:1800000}") long timeoutMillis,
+                            @Value("${booking.availability-feed.queue-capacity:1000}") int queueCapacity,
+                            @Value("${booking.availability-feed.subscriber-buffer:32}") int subscriberBuffer,
+                            @Value("${booking.availability-feed.writer-threads:8}") int writerThreads) {
+        this.workerScheduleIndex = workerScheduleIndex;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.subscriberBuffer = subscriberBuffer;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("availability-feed-");
+        threadFactory.setDaemon(true);
+        this.fanOut = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory);
+        CustomizableThreadFactory writerThreadFactory = new CustomizableThreadFactory("availability-feed-writer-");
+        writerThreadFactory.setDaemon(true);
+        // at most one queued task per subscriber, so the queue is bounded by the subscriber count
+        this.writers = new ThreadPoolExecutor(writerThreads, writerThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), writerThreadFactory);
+    }
+
+    /**
+     * Opens a feed of availability changes. The connection is closed after the configured timeout and
+     * browsers' {@code EventSource} reconnects on its own.
+     *
+     * @param date only changes to this day, or every change if null
+     * @return the emitter to return from the request handler
+     */
+    @Override
+    public SseEmitter subscribe(LocalDate date) {
+        return subscribe(new SseEmitter(timeoutMillis), date);
+    }
+
+    SseEmitter subscribe(SseEmitter emitter, LocalDate date) {
+        Subscriber subscriber = new Subscriber(emitter, date, new ArrayBlockingQueue<>(subscriberBuffer));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Queues one delta per worker and affected day of a booking event: BUSY for the day the booking is
+     * on, and FREE for the day it moved away from. Returns without waiting for the deltas to be built.
+     * Runs after the schedule index and the other read models have applied the event.
+     *
+     * @param event the committed booking change
+     */
+    @Override
+    @Order(3)
+    @EventListener
+    public void onBookingEvent(BookingEvent event) {
+        LocalDate day = event.startTime().toLocalDate();
+        LocalDate previousDay = event.previousStartTime() == null ? null : event.previousStartTime().toLocalDate();
+        if (subscribers.stream().noneMatch(subscriber -> subscriber.wants(day)
+                || previousDay != null && subscriber.wants(previousDay))) {
+            return;
+        }
+        try {
+            fanOut.execute(() -> {
+                try {
+                    publish(event, day, previousDay);
+                } catch (RuntimeException e) {
+                    log.warn("Could not publish booking event {} to the availability feed", event.eventId(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Availability feed is {} events behind, dropping booking event {}",
+                    fanOut.getQueue().size(), event.eventId());
+        }
+    }
+
+    /**
+     * Queues a comment to every subscriber, so proxies do not close idle connections and subscribers that
+     * went away are noticed and dropped. Skipped for subscribers that still have deltas waiting.
+     */
+    @Override
+    @Scheduled(fixedRateString = "${booking.availability-feed.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.pending().isEmpty()) {
+                offer(subscriber, heartbeat);
+            }
+        }
+    }
+
+    @Override
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("booking.availability.feed.subscribers", subscribers, List::size)
+                .description("Open availability feed connections")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdown();
+        writers.shutdown();
+    }
+
+    private void publish(BookingEvent event, LocalDate day, LocalDate previousDay) {
+        if (previousDay != null && !previousDay.equals(day)) {
+            publish(event, previousDay, AvailabilityDelta.Change.FREE);
+        }
+        publish(event, day, AvailabilityDelta.Change.BUSY);
+    }
+
+    private void publish(BookingEvent event, LocalDate day, AvailabilityDelta.Change change) {
+        List<Subscriber> recipients = subscribers.stream().filter(subscriber -> subscriber.wants(day)).toList();
+        if (recipients.isEmpty()) {
+            return;
+        }
+        // the event may have been committed on another node, so the days are read back from the database
+        // rather than trusted to this node's index: one query for all of the event's workers
+        workerScheduleIndex.evict(day, event.workerIds());
+        workerScheduleIndex.preload(day, event.workerIds());
+        for (Long workerId : event.workerIds()) {
+            AvailabilityDelta delta = new AvailabilityDelta(event.eventId(), day, workerId, change,
+                    slotStarts(day, workerScheduleIndex.busySlots(workerId, day)));
+            Set<ResponseBodyEmitter.DataWithMediaType> data;
+            try {
+                data = SseEmitter.event()
+                        .id(String.valueOf(event.publishSeq()))
+                        .name(EVENT_NAME)
+                        .data(objectMapper.writeValueAsString(delta), MediaType.APPLICATION_JSON)
+                        .build();
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            recipients.forEach(subscriber -> offer(subscriber, data));
+        }
+    }
+
+    /**
+     * Adds data to a subscriber's buffer and makes sure a writer drains it. A subscriber whose buffer is
+     * full is not keeping up and is dropped; it is closed by the writer, which holds its emitter.
+     */
+    private void offer(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> data) {
+        if (!subscriber.pending().offer(data) && !subscriber.overflowed) {
+            subscriber.overflowed = true;
+            subscribers.remove(subscriber);
+            log.info("Availability feed subscriber is {} deltas behind, dropping it", subscriberBuffer);
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                writers.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // shutting down
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    /**
+     * Writes out a subscriber's buffer. Runs on one writer at a time per subscriber, and hands the
+     * subscriber back once the buffer is empty, unless data arrived in between.
+     */
+    private void drain(Subscriber subscriber) {
+        do {
+            Set<ResponseBodyEmitter.DataWithMediaType> data;
+            while (!subscriber.closed && !subscriber.overflowed && (data = subscriber.pending().poll()) != null) {
+                send(subscriber, data);
+            }
+            if (subscriber.overflowed && !subscriber.closed) {
+                subscriber.closed = true;
+                // closed normally, so EventSource reconnects
+                subscriber.emitter().complete();
+            }
+            if (subscriber.closed) {
+                subscriber.pending().clear();
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.pending().isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void send(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> data) {
+        try {
+            subscriber.emitter().send(data);
+        } catch (IOException | IllegalStateException e) {
+            // the client went away or the emitter already completed
+            subscriber.closed = true;
+            subscribers.remove(subscriber);
+            subscriber.emitter().completeWithError(e);
+        }
+    }
+
+    private static List<LocalDateTime> slotStarts(LocalDate day, long slots) {
+        List<LocalDateTime> starts = new ArrayList<>(Long.bitCount(slots));
+        for (long remaining = slots; remaining != 0; remaining &= remaining - 1) {
+            int slot = Long.numberOfTrailingZeros(remaining);
+            starts.add(day.atStartOfDay().plusMinutes((long) slot * IWorkerScheduleIndex.SLOT_MINUTES));
+        }
+        return starts;
+    }
+
+    /**
+     * An open feed, optionally limited to one day, with the data waiting to be written to it.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final LocalDate date;
+
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending;
+
+        // set while a writer owns the subscriber
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile boolean overflowed;
+
+        // written by the writer that owns the subscriber only
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, LocalDate date, BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending) {
+            this.emitter = emitter;
+            this.date = date;
+            this.pending = pending;
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+
+        BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending() {
+            return pending;
+        }
+
+        boolean wants(LocalDate day) {
+            return date == null || date.equals(day);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.event.BookingChangedEvent;
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.model.BookingOutboxEntry;
+import com.justlife.bookingservice.repository.BookingOutboxRepository;
+import com.justlife.bookingservice.service.IBookingEventSink;
+import com.justlife.bookingservice.service.IBookingOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Transactional outbox for booking changes. Every {@link BookingChangedEvent} is written to the outbox
+ * table just before its transaction commits, and a background publisher numbers the committed entries,
+ * hands them to every {@link IBookingEventSink} and marks them published. Each node's in-JVM event bus
+ * relays the numbered entries on its own, see {@link ApplicationEventBookingRelay}.
+ * <p>
+ * Entry ids come from pooled sequence blocks when the change is written, so they follow neither commit
+ * order nor node. The publisher therefore numbers each entry from {@code booking_outbox_publish_seq} as it
+ * publishes it, under an advisory lock that lets only one node publish at a time: an entry that commits
+ * later is numbered later, whatever its id. Sinks only hand the events off, so the lock is held for the
+ * hand-off and never for the delivery itself.
+ */
+@Slf4j
+@Service
+public class BookingOutbox implements IBookingOutbox {
+
+    private final BookingOutboxRepository bookingOutboxRepository;
+
+    private final List<IBookingEventSink> sinks;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+
+    private final long retentionHours;
+
+    public BookingOutbox(BookingOutboxRepository bookingOutboxRepository, List<IBookingEventSink> sinks,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${booking.outbox.batch-size:500}") int batchSize,
+                         @Value("${booking.outbox.retention-hours:24}") long retentionHours) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Outbox batch size must be positive");
+        }
+        this.bookingOutboxRepository = bookingOutboxRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retentionHours = retentionHours;
+    }
+
+    /**
+     * Writes a booking change to the outbox inside the transaction that made it, so the entry commits or
+     * rolls back together with the booking.
+     *
+     * @param event the booking change
+     */
+    @Override
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void record(BookingChangedEvent event) {
+        bookingOutboxRepository.save(BookingOutboxEntry.builder()
+                .eventType(event.previousStartTime() == null ? BookingEvent.Type.BOOKING_CREATED : BookingEvent.Type.BOOKING_UPDATED)
+                .bookingId(event.bookingId())
+                .previousStartTime(event.previousStartTime())
+                .startTime(event.startTime())
+                .endTime(event.endTime())
+                .workerIds(event.workerIds())
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Publishes the unpublished entries in batches until none are left or a sink fails.
+     *
+     * @return the number of entries published
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${booking.outbox.poll-interval-ms:1000}")
+    public int publishPending() {
+        int total = 0;
+        Integer published;
+        do {
+            published = transactionTemplate.execute(status -> publishBatch());
+            total += published == null ? 0 : published;
+        } while (published != null && published == batchSize);
+        return total;
+    }
+
+    /**
+     * Deletes the entries published longer ago than the retention period.
+     *
+     * @return the number of entries deleted
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${booking.outbox.purge-interval-ms:3600000}")
+    public int purgePublished() {
+        Integer deleted = transactionTemplate.execute(status ->
+                bookingOutboxRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours)));
+        return deleted == null ? 0 : deleted;
+    }
+
+    private int publishBatch() {
+        if (!bookingOutboxRepository.tryLockPublisher()) {
+            // another node is publishing; its batch is numbered after the ones before it
+            return 0;
+        }
+        List<BookingOutboxEntry> entries = bookingOutboxRepository.findUnpublished(Limit.of(batchSize));
+        LocalDateTime now = LocalDateTime.now();
+        int published = 0;
+        for (BookingOutboxEntry entry : entries) {
+            if (entry.getPublishSeq() == null) {
+                // kept if a sink fails, so a retried event is handed out again under the same number
+                entry.setPublishSeq(bookingOutboxRepository.nextPublishSeq());
+            }
+            BookingEvent event = entry.toEvent();
+            try {
+                sinks.forEach(sink -> sink.publish(event));
+            } catch (RuntimeException e) {
+                // keep the order: this entry and the ones after it are retried on the next poll
+                log.warn("Publishing booking event {} failed, retrying on the next poll", event.eventId(), e);
+                return published;
+            }
+            entry.setPublishedAt(now);
+            published++;
+        }
+        return published;
+    }
+}
@@ -1,70 +1,216 @@
 package com.justlife.bookingservice.service.impl;
 
+import com.justlife.bookingservice.dto.BookingResult;
+import com.justlife.bookingservice.event.BookingChangedEvent;
 import com.justlife.bookingservice.model.Booking;
-import com.justlife.bookingservice.model.BookingDetail;
-import com.justlife.bookingservice.model.Vehicle;
 import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.projection.BookingDetailView;
+import com.justlife.bookingservice.model.projection.BookingInterval;
 import com.justlife.bookingservice.repository.BookingDetailRepository;
 import com.justlife.bookingservice.repository.BookingRepository;
+import com.justlife.bookingservice.repository.WorkerRepository;
+import com.justlife.bookingservice.repository.WorkerScheduleRepository;
 import com.justlife.bookingservice.service.IBookingService;
 import com.justlife.bookingservice.service.ICheckAvailabilityService;
+import com.justlife.bookingservice.service.IWorkerLockManager;
+import com.justlife.bookingservice.service.IWorkerScheduleIndex;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class BookingService implements IBookingService {
 
+    private static final int MAX_ADMISSION_ATTEMPTS = 3;
+
+    // bookings admitted per transaction in a batch import; a chunk holds its workers' rows until it
+    // commits, so it is kept small enough not to stall single bookings for long
+    private static final int BATCH_CHUNK_SIZE = 50;
+
+    private static final String NOT_ENOUGH_WORKERS = "Not enough workers available from the same vehicle for the provided time";
+
     private final BookingRepository bookingRepository;
 
     private final BookingDetailRepository bookingDetailRepository;
 
     private final ICheckAvailabilityService availabilityCheckService;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final WorkerRepository workerRepository;
+
+    private final WorkerScheduleRepository workerScheduleRepository;
+
+    private final IWorkerScheduleIndex workerScheduleIndex;
+
+    private final IWorkerLockManager workerLockManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
     @Override
-    @Transactional
     public Booking createBooking(Booking booking) {
         validateBooking(booking);
 
-        List<Worker> assignedWorkers = getAssignedWorkers(booking);
+        return admit(() -> {
+            Booking newBooking = Booking.builder()
+                    .startTime(booking.getStartTime())
+                    .duration(booking.getDuration())
+                    .requiredWorkers(booking.getRequiredWorkers())
+                    .build();
+
+            List<Worker> assignedWorkers = getAssignedWorkers(newBooking);
+            lockWorkers(List.of(new Assignment(newBooking, assignedWorkers)), null);
+
+            Booking savedBooking = bookingRepository.save(newBooking);
 
-        Booking savedBooking = bookingRepository.save(booking);
+            availabilityCheckService.updateWorkersAvailability(assignedWorkers, savedBooking);
 
-        availabilityCheckService.updateWorkersAvailability(assignedWorkers, savedBooking);
+            List<Long> workerIds = assignedWorkers.stream().map(Worker::getId).toList();
+            eventPublisher.publishEvent(new BookingChangedEvent(savedBooking.getId(), null,
+                    savedBooking.getStartTime(), savedBooking.getEndTime(), workerIds));
 
-        return savedBooking;
+            return savedBooking;
+        });
     }
 
     @Override
-    @Transactional
     public Booking updateBooking(Long bookingId, Booking updatedBooking) {
         validateBooking(updatedBooking);
 
-        Booking existingBooking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new IllegalStateException("Booking not found!"));
+        return admit(() -> {
+            Booking existingBooking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> rejection("not_found", new IllegalStateException("Booking not found!")));
 
-        List<Worker> assignedWorkers = getAssignedWorkers(updatedBooking);
+            List<Worker> assignedWorkers = getAssignedWorkers(updatedBooking);
+            lockWorkers(List.of(new Assignment(updatedBooking, assignedWorkers)), bookingId);
+            LocalDateTime previousStartTime = existingBooking.getStartTime();
 
-        existingBooking.setStartTime(updatedBooking.getStartTime());
-        existingBooking.setEndTime(updatedBooking.getEndTime());
-        existingBooking.setDuration(updatedBooking.getDuration());
-        existingBooking.setRequiredWorkers(updatedBooking.getRequiredWorkers());
+            existingBooking.setStartTime(updatedBooking.getStartTime());
+            existingBooking.setEndTime(updatedBooking.getEndTime());
+            existingBooking.setDuration(updatedBooking.getDuration());
+            existingBooking.setRequiredWorkers(updatedBooking.getRequiredWorkers());
 
-        Booking savedBooking = bookingRepository.save(existingBooking);
+            Booking savedBooking = bookingRepository.save(existingBooking);
 
-        availabilityCheckService.updateWorkersAvailability(assignedWorkers, savedBooking);
+            workerScheduleRepository.reschedule(bookingId, savedBooking.getStartTime(), savedBooking.getEndTime());
+            availabilityCheckService.updateWorkersAvailability(assignedWorkers, savedBooking);
 
-        return savedBooking;
+            // previously assigned workers stay linked to the booking, so publish the full set
+            List<Long> workerIds = bookingDetailRepository.findWorkerIdsByBookingId(bookingId);
+            eventPublisher.publishEvent(new BookingChangedEvent(savedBooking.getId(), previousStartTime,
+                    savedBooking.getStartTime(), savedBooking.getEndTime(), workerIds));
+
+            return savedBooking;
+        });
     }
 
+    /**
+     * Creates many bookings at once, in start time order. The workers that can crew the import's days
+     * are read once, and each chunk of bookings is admitted in one transaction against that snapshot, with
+     * its bookings and details written in JDBC batches. The snapshot only narrows the search: the chosen
+     * workers are locked and their bookings re-checked in the chunk's transaction. A chunk that collides
+     * with a concurrently committed booking, or cannot get its workers' locks in time, is admitted again
+     * one booking at a time.
+     *
+     * @param bookings the bookings to create
+     * @return the outcome of every booking, in request order
+     */
+    @Override
+    public List<BookingResult> createBookings(List<Booking> bookings) {
+        BookingResult[] results = new BookingResult[bookings.size()];
+        List<Integer> admissible = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            try {
+                validateBooking(bookings.get(i));
+                admissible.add(i);
+            } catch (IllegalArgumentException e) {
+                results[i] = BookingResult.rejected(i, e.getMessage());
+            }
+        }
+        if (admissible.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        admissible.sort(Comparator.comparing(i -> bookings.get(i).getStartTime()));
+        boolean fridaysOnly = admissible.stream()
+                .allMatch(i -> bookings.get(i).getStartTime().getDayOfWeek() == DayOfWeek.FRIDAY);
+        List<Worker> candidates = workerRepository.findCrewCandidates(fridaysOnly);
+
+        for (int from = 0; from < admissible.size(); from += BATCH_CHUNK_SIZE) {
+            List<Integer> chunk = admissible.subList(from, Math.min(from + BATCH_CHUNK_SIZE, admissible.size()));
+            List<BookingResult> chunkResults;
+            try {
+                chunkResults = transactionTemplate.execute(status -> admitChunk(chunk, bookings, candidates));
+            } catch (ConcurrencyFailureException | IllegalStateException e) {
+                chunk.forEach(i -> results[i] = createOne(i, bookings.get(i)));
+                continue;
+            }
+            // counted once the chunk commits, as a rolled back chunk is counted booking by booking
+            chunkResults.forEach(result -> {
+                results[result.index()] = result;
+                if (!result.success()) {
+                    countRejection("not_enough_workers");
+                }
+            });
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Lists booking details in id order, one page at a time.
+     *
+     * @param afterId  the id of the last booking detail of the previous page, or null for the first page
+     * @param limit    the maximum number of booking details to return
+     * @param from     only bookings starting at or after this time, if given
+     * @param to       only bookings starting before this time, if given
+     * @param workerId only bookings of this worker, if given
+     * @return the page of booking details
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingDetailView> getBookingDetails(Long afterId, int limit, LocalDateTime from, LocalDateTime to, Long workerId) {
+        return bookingDetailRepository.findPage(afterId == null ? 0L : afterId, workerId, from, to, Limit.of(limit));
+    }
+
+    /**
+     * Hands every matching booking detail to the consumer as it is read from the database cursor.
+     * Rows are read as projections, never as managed entities, so memory use does not grow with the result size.
+     *
+     * @param from     only bookings starting at or after this time, if given
+     * @param to       only bookings starting before this time, if given
+     * @param workerId only bookings of this worker, if given
+     * @param consumer receives the booking details in id order
+     */
     @Override
     @Transactional(readOnly = true)
-    public List<BookingDetail> getAllBookingDetails() {
-        return bookingDetailRepository.findAll();
+    public void streamBookingDetails(LocalDateTime from, LocalDateTime to, Long workerId, Consumer<BookingDetailView> consumer) {
+        try (Stream<BookingDetailView> bookingDetails = bookingDetailRepository.streamAll(workerId, from, to)) {
+            bookingDetails.forEach(consumer);
+        }
     }
 
     private List<Worker> getAssignedWorkers(Booking booking) {
@@ -72,35 +218,178 @@ public class BookingService implements IBookingService {
         LocalDateTime endTime = startTime.plusHours(booking.getDuration());
         booking.setEndTime(endTime);
 
-        List<Worker> availableWorkers = availabilityCheckService.checkAvailabilityByDateTime(startTime, booking.getDuration(), booking.getRequiredWorkers());
+        List<Worker> crew = availabilityCheckService.findAvailableCrew(startTime, booking.getDuration(), booking.getRequiredWorkers());
+
+        if (crew.size() < booking.getRequiredWorkers()) {
+            throw rejection("not_enough_workers", new IllegalStateException(NOT_ENOUGH_WORKERS));
+        }
+
+        return crew;
+    }
+
+    /**
+     * Assigns crews to a chunk of bookings, tracking the chunk's own bookings per worker so that later
+     * bookings in the chunk see the earlier ones, then claims all workers and saves the chunk at once.
+     * The candidates are those with a vehicle, and Friday-off workers only when the import has other days.
+     */
+    private List<BookingResult> admitChunk(List<Integer> chunk, List<Booking> bookings, List<Worker> workers) {
+        List<BookingResult> results = new ArrayList<>(chunk.size());
+        List<Assignment> assignments = new ArrayList<>();
+        List<Integer> assignedIndexes = new ArrayList<>();
+        Map<Long, List<Booking>> admittedByWorker = new HashMap<>();
+
+        for (int i : chunk) {
+            Booking booking = bookings.get(i);
+            Booking newBooking = Booking.builder()
+                    .startTime(booking.getStartTime())
+                    .endTime(booking.getStartTime().plusHours(booking.getDuration()))
+                    .duration(booking.getDuration())
+                    .requiredWorkers(booking.getRequiredWorkers())
+                    .build();
+
+            List<Worker> crew = availabilityCheckService.findAvailableCrew(workers, newBooking.getStartTime(),
+                    newBooking.getDuration(), newBooking.getRequiredWorkers(),
+                    worker -> admittedByWorker.getOrDefault(worker.getId(), List.of()).stream()
+                            .noneMatch(admitted -> overlaps(newBooking, admitted.getStartTime(), admitted.getEndTime())));
 
-        if (availableWorkers.size() < booking.getRequiredWorkers()) {
-            throw new IllegalStateException("Not enough workers available for the provided time");
+            if (crew.size() < newBooking.getRequiredWorkers()) {
+                results.add(BookingResult.rejected(i, NOT_ENOUGH_WORKERS));
+                continue;
+            }
+            crew.forEach(worker -> admittedByWorker.computeIfAbsent(worker.getId(), id -> new ArrayList<>()).add(newBooking));
+            assignments.add(new Assignment(newBooking, crew));
+            assignedIndexes.add(i);
         }
 
-        Vehicle vehicle = availableWorkers.get(0).getVehicle();
-        return filterWorkersByVehicle(vehicle.getId(), availableWorkers, booking.getRequiredWorkers());
+        if (assignments.isEmpty()) {
+            return results;
+        }
+        lockWorkers(assignments, null);
+
+        bookingRepository.saveAll(assignments.stream().map(Assignment::booking).toList());
+        for (int a = 0; a < assignments.size(); a++) {
+            Assignment assignment = assignments.get(a);
+            Booking savedBooking = assignment.booking();
+            availabilityCheckService.updateWorkersAvailability(assignment.workers(), savedBooking);
+
+            List<Long> workerIds = assignment.workers().stream().map(Worker::getId).toList();
+            eventPublisher.publishEvent(new BookingChangedEvent(savedBooking.getId(), null,
+                    savedBooking.getStartTime(), savedBooking.getEndTime(), workerIds));
+            results.add(BookingResult.created(assignedIndexes.get(a), savedBooking));
+        }
+
+        return results;
+    }
+
+    private BookingResult createOne(int index, Booking booking) {
+        try {
+            return BookingResult.created(index, createBooking(booking));
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return BookingResult.rejected(index, e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a booking admission in its own transaction, retrying a bounded number of times when
+     * another booking for one of the same workers committed first. Waiting too long for the workers'
+     * lock stripes is not retried, as the wait already took the whole lock timeout.
+     *
+     * @param admission the check-then-insert to run
+     * @return the saved booking
+     */
+    private Booking admit(Supplier<Booking> admission) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> admission.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_ADMISSION_ATTEMPTS) {
+                    throw rejection("concurrent_booking", new IllegalStateException("Workers were booked concurrently, please try again", e));
+                }
+            } catch (CannotAcquireLockException e) {
+                throw rejection("lock_timeout", new IllegalStateException(e.getMessage(), e));
+            }
+        }
+    }
+
+    /**
+     * Claims the assigned workers for this transaction by bumping their versions, then re-checks their
+     * bookings in the database. The bump is an update, so a second transaction assigning one of the same
+     * workers waits on the row until the first ends; its re-check then runs after that commit, sees the
+     * booking and retries. Transactions for different workers never touch the same rows.
+     *
+     * @param assignments the bookings being admitted with their workers
+     * @param bookingId   the id of the booking being updated, or null for new bookings
+     */
+    private void lockWorkers(List<Assignment> assignments, Long bookingId) {
+        List<Long> workerIds = assignments.stream()
+                .flatMap(assignment -> assignment.workers().stream())
+                .map(Worker::getId)
+                .distinct()
+                .toList();
+        workerLockManager.lockUntilCompletion(workerIds);
+        if (workerRepository.incrementVersions(workerIds) != workerIds.size()) {
+            throw new OptimisticLockingFailureException("A worker was removed while being booked");
+        }
+
+        Map<LocalDate, List<Assignment>> assignmentsByDay = assignments.stream()
+                .collect(Collectors.groupingBy(assignment -> assignment.booking().getStartTime().toLocalDate()));
+        assignmentsByDay.forEach((day, dayAssignments) -> {
+            List<Long> dayWorkerIds = dayAssignments.stream()
+                    .flatMap(assignment -> assignment.workers().stream())
+                    .map(Worker::getId)
+                    .distinct()
+                    .toList();
+            Map<Long, List<BookingInterval>> intervalsByWorker = workerScheduleRepository.findBookingIntervals(
+                            dayWorkerIds, day.atStartOfDay(), day.plusDays(1).atStartOfDay()).stream()
+                    .collect(Collectors.groupingBy(BookingInterval::workerId));
+
+            for (Assignment assignment : dayAssignments) {
+                for (Worker worker : assignment.workers()) {
+                    for (BookingInterval interval : intervalsByWorker.getOrDefault(worker.getId(), List.of())) {
+                        if (!interval.bookingId().equals(bookingId)
+                                && overlaps(assignment.booking(), interval.startTime(), interval.endTime())) {
+                            // the schedule index had not seen this booking yet
+                            workerScheduleIndex.evict(day, dayWorkerIds);
+                            throw new OptimisticLockingFailureException("Worker " + interval.workerId() + " was booked concurrently");
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    private static boolean overlaps(Booking booking, LocalDateTime startTime, LocalDateTime endTime) {
+        return booking.getStartTime().isBefore(endTime.plusMinutes(30))
+                && booking.getEndTime().isAfter(startTime.minusMinutes(30));
     }
 
     private void validateBooking(Booking booking) {
+        if (booking == null) {
+            throw rejection("invalid_request", new IllegalArgumentException("Booking is required"));
+        }
+        if (booking.getStartTime() == null) {
+            throw rejection("invalid_request", new IllegalArgumentException("Booking start time is required"));
+        }
         if (booking.getDuration() != 2 && booking.getDuration() != 4) {
-            throw new IllegalArgumentException("Invalid booking duration. Must be 2 or 4 hours.");
+            throw rejection("invalid_request", new IllegalArgumentException("Invalid booking duration. Must be 2 or 4 hours."));
         }
         if (booking.getRequiredWorkers() < 1 || booking.getRequiredWorkers() > 3) {
-            throw new IllegalArgumentException("Invalid number of workers required");
+            throw rejection("invalid_request", new IllegalArgumentException("Invalid number of workers required"));
         }
     }
 
-    private List<Worker> filterWorkersByVehicle(Long vehicleId, List<Worker> availableWorkers, int workersRequired) {
-        List<Worker> assignedWorkers = availableWorkers.stream()
-                .filter(wrk -> wrk.getVehicle().getId().equals(vehicleId))
-                .limit(workersRequired)
-                .toList();
+    /**
+     * Counts a rejected booking as {@code booking.rejections}, tagged with the reason.
+     */
+    private void countRejection(String reason) {
+        meterRegistry.counter("booking.rejections", "reason", reason).increment();
+    }
 
-        if (assignedWorkers.size() < workersRequired) {
-            throw new IllegalStateException("Not enough workers available from the same vehicle");
-        }
+    private <E extends RuntimeException> E rejection(String reason, E exception) {
+        countRejection(reason);
+        return exception;
+    }
 
-        return assignedWorkers;
+    private record Assignment(Booking booking, List<Worker> workers) {
     }
 }
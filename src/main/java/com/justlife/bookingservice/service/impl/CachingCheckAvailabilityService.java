@@ -0,0 +1,219 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.justlife.bookingservice.dto.AvailabilityCalendar;
+import com.justlife.bookingservice.event.BookingChangedEvent;
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.event.VehicleChangedEvent;
+import com.justlife.bookingservice.event.WorkerChangedEvent;
+import com.justlife.bookingservice.model.Booking;
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.service.ICheckAvailabilityService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Caches availability answers in front of {@link CheckAvailabilityService}.
+ * <p>
+ * Entries are bounded in number and age. A committed booking change evicts only the entries whose
+ * day or time window it can affect, while any worker or vehicle change evicts everything, since it
+ * can add or remove a worker from any answer. Crew searches made while admitting a booking are never
+ * cached. Booking changes committed on other nodes evict once the outbox relays them; worker and vehicle
+ * changes are only seen on the node that made them, so elsewhere an answer can be stale until it expires.
+ * <p>
+ * Eviction cannot see an answer that is still being computed, so every eviction first bumps a
+ * generation counter for the days it touches. A caller that sees its day's generation change while it
+ * computed drops the answer it just cached, rather than leaving it stale until it expires.
+ */
+@Service
+@Primary
+public class CachingCheckAvailabilityService implements ICheckAvailabilityService {
+
+    private static final int BREAK_MINUTES = 30;
+
+    // days share generation counters; a collision only drops an answer that was still current
+    private static final int GENERATION_STRIPES = 256;
+
+    private final CheckAvailabilityService delegate;
+
+    private final Cache<AvailabilityKey, List<Worker>> cache;
+
+    private final Cache<LocalDate, AvailabilityCalendar> calendarCache;
+
+    private final AtomicLongArray dayGenerations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final AtomicLong allDaysGeneration = new AtomicLong();
+
+    public CachingCheckAvailabilityService(CheckAvailabilityService delegate, MeterRegistry meterRegistry,
+                                           @Value("${booking.availability-cache.maximum-size:10000}") long maximumSize,
+                                           @Value("${booking.availability-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.calendarCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "availability");
+        CaffeineCacheMetrics.monitor(meterRegistry, calendarCache, "availability-calendar");
+    }
+
+    @Override
+    public List<Worker> checkAvailabilityForDate(LocalDate date, int workersRequired) {
+        return get(cache, new AvailabilityKey(date, null, null, workersRequired), date,
+                key -> List.copyOf(delegate.checkAvailabilityForDate(date, workersRequired)));
+    }
+
+    @Override
+    public List<Worker> checkAvailabilityForDate(List<Worker> workers, LocalDate date, int workersRequired) {
+        return delegate.checkAvailabilityForDate(workers, date, workersRequired);
+    }
+
+    @Override
+    public Map<LocalDate, List<Worker>> checkAvailabilityForRange(LocalDate from, LocalDate to, int workersRequired) {
+        return delegate.checkAvailabilityForRange(from, to, workersRequired);
+    }
+
+    @Override
+    public List<Worker> checkAvailabilityByDateTime(LocalDateTime startTime, int duration, int workersRequired) {
+        return get(cache, new AvailabilityKey(startTime.toLocalDate(), startTime, duration, workersRequired),
+                startTime.toLocalDate(), key -> List.copyOf(delegate.checkAvailabilityByDateTime(startTime, duration, workersRequired)));
+    }
+
+    @Override
+    public List<Worker> checkAvailabilityByDateTime(List<Worker> workers, LocalDateTime startTime, int duration, int workersRequired) {
+        return delegate.checkAvailabilityByDateTime(workers, startTime, duration, workersRequired);
+    }
+
+    @Override
+    public AvailabilityCalendar getAvailabilityCalendar(LocalDate date) {
+        return get(calendarCache, date, date, delegate::getAvailabilityCalendar);
+    }
+
+    @Override
+    public List<Worker> findAvailableCrew(LocalDateTime startTime, int duration, int workersRequired) {
+        return delegate.findAvailableCrew(startTime, duration, workersRequired);
+    }
+
+    @Override
+    public List<Worker> findAvailableCrew(List<Worker> workers, LocalDateTime startTime, int duration, int workersRequired,
+                                          Predicate<Worker> eligible) {
+        return delegate.findAvailableCrew(workers, startTime, duration, workersRequired, eligible);
+    }
+
+    @Override
+    public void updateWorkersAvailability(List<Worker> workers, Booking booking) {
+        delegate.updateWorkersAvailability(workers, booking);
+    }
+
+    /**
+     * Evicts the answers a committed booking change can make stale: every answer for the day the booking
+     * moved away from, and on its new day the whole-day answers plus the time windows that now clash
+     * with it. Calendars of both days are evicted. Ordered after the schedule index
+     * ({@code @Order(0)}) and the slot availability view ({@code @Order(1)}), so an answer recomputed
+     * in between already sees the change.
+     *
+     * @param event the booking change
+     */
+    @Order(2)
+    @TransactionalEventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        LocalDate previousDay = event.previousStartTime() == null ? null : event.previousStartTime().toLocalDate();
+        LocalDate day = event.startTime().toLocalDate();
+        LocalDateTime busyFrom = event.startTime().minusMinutes(BREAK_MINUTES);
+        LocalDateTime busyTo = event.endTime().plusMinutes(BREAK_MINUTES);
+
+        nextGeneration(day);
+        nextGeneration(busyFrom.toLocalDate());
+        if (previousDay != null) {
+            nextGeneration(previousDay);
+        }
+        cache.asMap().keySet().removeIf(key -> key.date().equals(previousDay)
+                || key.startTime() == null && key.date().equals(day)
+                || key.startTime() != null && key.startTime().isBefore(busyTo)
+                && key.startTime().plusHours(key.duration()).isAfter(busyFrom));
+        calendarCache.invalidate(day);
+        if (previousDay != null) {
+            calendarCache.invalidate(previousDay);
+        }
+    }
+
+    /**
+     * Evicts the answers a booking change relayed from the outbox can make stale, as for
+     * {@link #onBookingChanged}. The change may have been committed on another node.
+     *
+     * @param event the relayed booking change
+     */
+    @Order(2)
+    @EventListener
+    public void onBookingEvent(BookingEvent event) {
+        onBookingChanged(BookingChangedEvent.of(event));
+    }
+
+    @EventListener
+    public void onWorkerChanged(WorkerChangedEvent event) {
+        allDaysGeneration.incrementAndGet();
+        cache.invalidateAll();
+        calendarCache.invalidateAll();
+    }
+
+    @EventListener
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        allDaysGeneration.incrementAndGet();
+        cache.invalidateAll();
+        calendarCache.invalidateAll();
+    }
+
+    /**
+     * Looks up or computes an answer about the given day. The value is in the cache once
+     * {@link Cache#get} returns, so if an eviction for the day started meanwhile, it is removed again;
+     * an eviction that starts later finds it in the cache.
+     */
+    private <K, V> V get(Cache<K, V> cache, K key, LocalDate day, Function<K, V> compute) {
+        long generation = generation(day);
+        V value = cache.get(key, compute);
+        if (generation(day) != generation) {
+            cache.asMap().remove(key, value);
+        }
+        return value;
+    }
+
+    private long generation(LocalDate day) {
+        return allDaysGeneration.get() + dayGenerations.get(generationStripe(day));
+    }
+
+    private void nextGeneration(LocalDate day) {
+        dayGenerations.incrementAndGet(generationStripe(day));
+    }
+
+    private static int generationStripe(LocalDate day) {
+        return (int) Math.floorMod(day.toEpochDay(), GENERATION_STRIPES);
+    }
+
+    /**
+     * An availability question; {@code startTime} and {@code duration} are null for a whole-day question.
+     */
+    private record AvailabilityKey(LocalDate date, LocalDateTime startTime, Integer duration, int workersRequired) {
+    }
+}
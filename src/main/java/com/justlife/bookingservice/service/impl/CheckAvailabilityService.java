@@ -1,27 +1,60 @@
 package com.justlife.bookingservice.service.impl;
 
+import com.justlife.bookingservice.dto.AvailabilityCalendar;
 import com.justlife.bookingservice.model.Booking;
 import com.justlife.bookingservice.model.BookingDetail;
 import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.WorkerSchedule;
 import com.justlife.bookingservice.repository.BookingDetailRepository;
 import com.justlife.bookingservice.repository.WorkerRepository;
+import com.justlife.bookingservice.repository.WorkerScheduleRepository;
 import com.justlife.bookingservice.service.ICheckAvailabilityService;
+import com.justlife.bookingservice.service.ISlotAvailabilityView;
+import com.justlife.bookingservice.service.IWorkerScheduleIndex;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.justlife.bookingservice.util.Constants.MAX_RANGE_DAYS;
 
 @Service
 @RequiredArgsConstructor
 public class CheckAvailabilityService implements ICheckAvailabilityService {
 
+    private static final int WORKER_PAGE_SIZE = 200;
+
+    private static final String PHASE_TIMER = "booking.availability.phase";
+
     private final WorkerRepository workerRepository;
 
     private final BookingDetailRepository bookingDetailRepository;
 
+    private final WorkerScheduleRepository workerScheduleRepository;
+
+    private final IWorkerScheduleIndex workerScheduleIndex;
+
+    private final ISlotAvailabilityView slotAvailabilityView;
+
+    private final MeterRegistry meterRegistry;
+
     /**
      * Checks the availability of workers on a given date.
      *
@@ -31,15 +64,67 @@ public class CheckAvailabilityService implements ICheckAvailabilityService {
      */
     @Override
     public List<Worker> checkAvailabilityForDate(LocalDate date, int workersRequired) {
+        PhaseTimer phases = new PhaseTimer();
         LocalDateTime startOfDay = date.atTime(8, 0);
         LocalDateTime endOfDay = date.atTime(22, 0);
 
-        List<Worker> allWorkers = workerRepository.findAll();
+        return phases.finish(scanWorkers(date, phases)
+                .filter(wrk -> isAvailableOnDate(wrk, startOfDay, endOfDay))
+                .limit(workersRequired)
+                .toList());
+    }
+
+    /**
+     * Checks the availability of the given workers on a given date. Used by callers that read the workers,
+     * and load their bookings into the schedule index, themselves.
+     *
+     * @param workers         the workers to choose from
+     * @param date            the date to check availability for
+     * @param workersRequired the number of workers required
+     * @return a list of available workers
+     */
+    @Override
+    public List<Worker> checkAvailabilityForDate(List<Worker> workers, LocalDate date, int workersRequired) {
+        PhaseTimer phases = new PhaseTimer();
+        LocalDateTime startOfDay = date.atTime(8, 0);
+        LocalDateTime endOfDay = date.atTime(22, 0);
 
-        return allWorkers.stream()
+        return phases.finish(scanWorkers(workers, date, phases)
                 .filter(wrk -> isAvailableOnDate(wrk, startOfDay, endOfDay))
                 .limit(workersRequired)
-                .toList();
+                .toList());
+    }
+
+    /**
+     * Checks the availability of workers on every day of a date range. All workers and their bookings
+     * for the whole range are loaded up front, then the days are evaluated in parallel from memory.
+     *
+     * @param from            the first day to check
+     * @param to              the last day to check, inclusive
+     * @param workersRequired the number of workers required
+     * @return the available workers of each day, in date order
+     */
+    @Override
+    public Map<LocalDate, List<Worker>> checkAvailabilityForRange(LocalDate from, LocalDate to, int workersRequired) {
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must span 1 to " + MAX_RANGE_DAYS + " days");
+        }
+
+        PhaseTimer phases = new PhaseTimer();
+        List<Worker> workers = new ArrayList<>();
+        for (List<Worker> page = phases.loadWorkers(0L); !page.isEmpty();
+             page = page.size() < WORKER_PAGE_SIZE ? List.of() : phases.loadWorkers(page.get(page.size() - 1).getId())) {
+            workers.addAll(page);
+        }
+        phases.loadSchedules(from, to, workers.stream().map(Worker::getId).toList());
+
+        return phases.finish(from.datesUntil(to.plusDays(1))
+                .parallel()
+                .collect(Collectors.toMap(Function.identity(), day -> workers.stream()
+                                .filter(wrk -> isAvailableOnDate(wrk, day.atTime(8, 0), day.atTime(22, 0)))
+                                .limit(workersRequired)
+                                .toList(),
+                        (first, second) -> first, TreeMap::new)));
     }
 
     /**
@@ -52,13 +137,161 @@ public class CheckAvailabilityService implements ICheckAvailabilityService {
      */
     @Override
     public List<Worker> checkAvailabilityByDateTime(LocalDateTime startTime, int duration, int workersRequired) {
+        PhaseTimer phases = new PhaseTimer();
         LocalDateTime endTime = startTime.plusHours(duration);
-        List<Worker> allWorkers = workerRepository.findAll();
+        return phases.finish(scanWorkers(startTime.toLocalDate(), phases)
+                .filter(wrk -> isAvailableOnDataTime(wrk, startTime, endTime))
+                .limit(workersRequired)
+                .toList());
+    }
 
-        return allWorkers.stream()
+    /**
+     * Checks the availability of the given workers for a given date and time range. Used by callers that
+     * read the workers, and load their bookings into the schedule index, themselves.
+     *
+     * @param workers         the workers to choose from
+     * @param startTime       the start time of the required availability
+     * @param duration        the duration of the required availability
+     * @param workersRequired the number of workers required
+     * @return a list of available workers
+     */
+    @Override
+    public List<Worker> checkAvailabilityByDateTime(List<Worker> workers, LocalDateTime startTime, int duration, int workersRequired) {
+        PhaseTimer phases = new PhaseTimer();
+        LocalDateTime endTime = startTime.plusHours(duration);
+        return phases.finish(scanWorkers(workers, startTime.toLocalDate(), phases)
                 .filter(wrk -> isAvailableOnDataTime(wrk, startTime, endTime))
                 .limit(workersRequired)
-                .toList();
+                .toList());
+    }
+
+    /**
+     * Lists every bookable start time of a day for each booking duration and crew size. The start times
+     * are read from the slot availability view, which keeps the free crew size of every vehicle per slot,
+     * so the workers and their bookings are not scanned again.
+     *
+     * @param date the day to build the calendar for
+     * @return the bookable start times per duration and crew size
+     */
+    @Override
+    public AvailabilityCalendar getAvailabilityCalendar(LocalDate date) {
+        PhaseTimer phases = new PhaseTimer();
+        List<AvailabilityCalendar.CalendarEntry> entries = new ArrayList<>();
+        for (int duration : ISlotAvailabilityView.BOOKING_DURATIONS) {
+            for (int crewSize = 1; crewSize <= ISlotAvailabilityView.MAX_CREW_SIZE; crewSize++) {
+                entries.add(new AvailabilityCalendar.CalendarEntry(duration, crewSize,
+                        startTimes(date, slotAvailabilityView.crewStartSlots(date, duration, crewSize))));
+            }
+        }
+        return phases.finish(new AvailabilityCalendar(date, entries));
+    }
+
+    /**
+     * Finds a crew of free workers that share a vehicle for a given date and time range.
+     * Free workers are grouped by vehicle in a single pass and the first vehicle to reach
+     * the required crew size is returned. The slot availability view is not consulted: it sees
+     * other nodes' changes only once they are relayed, and a crew freed meanwhile must not be turned away.
+     *
+     * @param startTime       the start time of the required availability
+     * @param duration        the duration of the required availability
+     * @param workersRequired the number of workers required
+     * @return the workers of the first vehicle with enough free workers, or an empty list if there is none
+     */
+    @Override
+    public List<Worker> findAvailableCrew(LocalDateTime startTime, int duration, int workersRequired) {
+        PhaseTimer phases = new PhaseTimer();
+        return phases.finish(findCrew(scanWorkers(startTime.toLocalDate(), phases).iterator(), startTime,
+                startTime.plusHours(duration), workersRequired, worker -> true));
+    }
+
+    /**
+     * Finds a crew of free workers that share a vehicle among the given workers, skipping workers that
+     * are not eligible. Used to admit many bookings against one snapshot of the fleet.
+     *
+     * @param workers         the workers to choose from
+     * @param startTime       the start time of the required availability
+     * @param duration        the duration of the required availability
+     * @param workersRequired the number of workers required
+     * @param eligible        an extra condition a worker must meet to be picked
+     * @return the workers of the first vehicle with enough free workers, or an empty list if there is none
+     */
+    @Override
+    public List<Worker> findAvailableCrew(List<Worker> workers, LocalDateTime startTime, int duration, int workersRequired,
+                                          Predicate<Worker> eligible) {
+        PhaseTimer phases = new PhaseTimer();
+        return phases.finish(findCrew(scanWorkers(workers, startTime.toLocalDate(), phases).iterator(), startTime, startTime.plusHours(duration), workersRequired, eligible));
+    }
+
+    private List<Worker> findCrew(Iterator<Worker> workers, LocalDateTime startTime, LocalDateTime endTime,
+                                  int workersRequired, Predicate<Worker> eligible) {
+        Map<Long, List<Worker>> freeWorkersByVehicle = new HashMap<>();
+        while (workers.hasNext()) {
+            Worker worker = workers.next();
+            if (worker.getVehicle() == null || !eligible.test(worker) || !isAvailableOnDataTime(worker, startTime, endTime)) {
+                continue;
+            }
+            List<Worker> crew = freeWorkersByVehicle.computeIfAbsent(worker.getVehicle().getId(), id -> new ArrayList<>());
+            crew.add(worker);
+            if (crew.size() == workersRequired) {
+                return crew;
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Streams all workers in id order, reading them from the database one keyset page at a time.
+     * A page is only read, and its workers' bookings for the day loaded, once the previous page is
+     * used up, so a search that finds enough workers early stops reading.
+     *
+     * @param day    the day whose bookings are loaded for each page
+     * @param phases the timer of the check the workers are read for
+     * @return a lazy stream of all workers
+     */
+    private Stream<Worker> scanWorkers(LocalDate day, PhaseTimer phases) {
+        return Stream.iterate(nextWorkerPage(0L, day, phases), page -> !page.isEmpty(),
+                        page -> page.size() < WORKER_PAGE_SIZE
+                                ? List.of()
+                                : nextWorkerPage(page.get(page.size() - 1).getId(), day, phases))
+                .flatMap(List::stream);
+    }
+
+    /**
+     * Streams the given workers in pages, loading a page's bookings for the day only once the previous
+     * page is used up, so a check answered by the first workers of a long list never looks at the rest.
+     *
+     * @param workers the workers to stream
+     * @param day     the day whose bookings are loaded for each page
+     * @param phases  the timer of the check the workers are streamed for
+     * @return a lazy stream of the given workers
+     */
+    private Stream<Worker> scanWorkers(List<Worker> workers, LocalDate day, PhaseTimer phases) {
+        return IntStream.iterate(0, from -> from < workers.size(), from -> from + WORKER_PAGE_SIZE)
+                .mapToObj(from -> workers.subList(from, Math.min(from + WORKER_PAGE_SIZE, workers.size())))
+                .flatMap(page -> {
+                    phases.loadSchedules(day, day, page.stream().map(Worker::getId).toList());
+                    return page.stream();
+                });
+    }
+
+    private List<Worker> nextWorkerPage(Long afterId, LocalDate day, PhaseTimer phases) {
+        List<Worker> page = phases.loadWorkers(afterId);
+        phases.loadSchedules(day, day, page.stream().map(Worker::getId).toList());
+        return page;
+    }
+
+    private List<Worker> nextWorkerPage(Long afterId) {
+        return workerRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(WORKER_PAGE_SIZE));
+    }
+
+    private static List<LocalDateTime> startTimes(LocalDate date, long slots) {
+        List<LocalDateTime> startTimes = new ArrayList<>(Long.bitCount(slots));
+        for (long remaining = slots; remaining != 0; remaining &= remaining - 1) {
+            int slot = Long.numberOfTrailingZeros(remaining);
+            startTimes.add(date.atStartOfDay().plusMinutes((long) slot * IWorkerScheduleIndex.SLOT_MINUTES));
+        }
+        return startTimes;
     }
 
     /**
@@ -73,10 +306,7 @@ public class CheckAvailabilityService implements ICheckAvailabilityService {
         if (checkIfOutsideWorkingHours(worker, startOfDay, endOfDay)) return false;
 
         // check for existing bookings and ensure a 30-minute break
-        List<BookingDetail> bookingDetails = bookingDetailRepository.findByWorkerIdAndBookingStartTimeBetween(
-                worker.getId(), startOfDay, endOfDay);
-
-        return checkAvailability(startOfDay, endOfDay, bookingDetails);
+        return workerScheduleIndex.isFree(worker.getId(), startOfDay, endOfDay);
     }
 
     /**
@@ -91,36 +321,66 @@ public class CheckAvailabilityService implements ICheckAvailabilityService {
         if (checkIfOutsideWorkingHours(worker, startTime, endTime)) return false;
 
         // check for existing bookings and ensure a 30-minute break
-        List<BookingDetail> bookingDetails = bookingDetailRepository.findByWorkerIdAndBookingStartTimeBetween(
-                worker.getId(), startTime.toLocalDate().atStartOfDay(), endTime.toLocalDate().atTime(23, 59));
+        return workerScheduleIndex.isFree(worker.getId(), startTime, endTime);
+    }
 
-        return checkAvailability(startTime, endTime, bookingDetails);
+    /**
+     * Checks if a time range falls outside a worker's working days or hours. Package-private so the
+     * benchmarks can measure it on its own.
+     *
+     * @param worker    the worker to check
+     * @param startTime the start of the time range
+     * @param endTime   the end of the time range
+     * @return true if the worker does not work for the whole time range, false otherwise
+     */
+    static boolean checkIfOutsideWorkingHours(Worker worker, LocalDateTime startTime, LocalDateTime endTime) {
+        if (!worker.isWorkingOn(startTime.getDayOfWeek())) {
+            return true;
+        }
+        long spannedDays = endTime.toLocalDate().toEpochDay() - startTime.toLocalDate().toEpochDay();
+        int startMinute = startTime.getHour() * 60 + startTime.getMinute();
+        int endMinute = (int) spannedDays * 24 * 60 + endTime.getHour() * 60 + endTime.getMinute();
+
+        return !worker.getWorkingHours().contains(startMinute, endMinute);
     }
 
-    private boolean checkAvailability(LocalDateTime startTime, LocalDateTime endTime, List<BookingDetail> bookingDetails) {
-        for (BookingDetail bookingDetail : bookingDetails) {
-            LocalDateTime bookingStart = bookingDetail.getBooking().getStartTime();
-            LocalDateTime bookingEnd = bookingDetail.getBooking().getEndTime();
+    /**
+     * Times the phases of one availability check as {@code booking.availability.phase}: reading workers,
+     * loading their bookings into the schedule index, and evaluating them, which is the rest of the check.
+     */
+    private final class PhaseTimer {
+
+        private final long startedAt = System.nanoTime();
 
-            if (startTime.isBefore(bookingEnd.plusMinutes(30)) && endTime.isAfter(bookingStart.minusMinutes(30))) {
-                return false;
+        private long loadNanos;
+
+        List<Worker> loadWorkers(Long afterId) {
+            long loadStart = System.nanoTime();
+            try {
+                return nextWorkerPage(afterId);
+            } finally {
+                loadNanos += record("worker_load", System.nanoTime() - loadStart);
             }
         }
 
-        return true;
-    }
+        void loadSchedules(LocalDate from, LocalDate to, List<Long> workerIds) {
+            long loadStart = System.nanoTime();
+            try {
+                workerScheduleIndex.preload(from, to, workerIds);
+            } finally {
+                loadNanos += record("schedule_load", System.nanoTime() - loadStart);
+            }
+        }
 
-    private boolean checkIfOutsideWorkingHours(Worker worker, LocalDateTime startTime, LocalDateTime endTime) {
-        boolean isWorkingDay = worker.isWorkingOnFridays() || startTime.getDayOfWeek().getValue() != 5;
-        if (!isWorkingDay) {
-            return true;
+        <T> T finish(T result) {
+            record("evaluation", System.nanoTime() - startedAt - loadNanos);
+            return result;
         }
-        String[] workingHours = worker.getWorkingHours().split("-");
-        LocalTime startWorkTime = LocalTime.parse(workingHours[0]);
-        LocalTime endWorkTime = LocalTime.parse(workingHours[1]);
-        boolean isWithinWorkingHours = !startTime.toLocalTime().isBefore(startWorkTime) && !endTime.toLocalTime().isAfter(endWorkTime);
 
-        return !isWithinWorkingHours;
+        private long record(String phase, long nanos) {
+            meterRegistry.timer(PHASE_TIMER, "phase", phase).record(nanos, TimeUnit.NANOSECONDS);
+            return nanos;
+        }
     }
 
     /**
@@ -131,11 +391,22 @@ public class CheckAvailabilityService implements ICheckAvailabilityService {
      */
     @Override
     public void updateWorkersAvailability(List<Worker> workers, Booking booking) {
+        List<BookingDetail> bookingDetails = new ArrayList<>(workers.size());
+        List<WorkerSchedule> schedules = new ArrayList<>(workers.size());
         for (Worker worker : workers) {
             BookingDetail bookingDetail = new BookingDetail();
             bookingDetail.setBooking(booking);
             bookingDetail.setWorker(worker);
-            bookingDetailRepository.save(bookingDetail);
+            bookingDetails.add(bookingDetail);
+            schedules.add(WorkerSchedule.builder()
+                    .workerId(worker.getId())
+                    .bookingId(booking.getId())
+                    .startTime(booking.getStartTime())
+                    .endTime(booking.getEndTime())
+                    .build());
         }
+        // ids come from a pooled sequence, so the rows go out as one JDBC batch on flush
+        bookingDetailRepository.saveAll(bookingDetails);
+        workerScheduleRepository.saveAll(schedules);
     }
 }
@@ -0,0 +1,138 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.projection.BookingDetailView;
+import com.justlife.bookingservice.repository.reactive.ReactiveBookingDetailRepository;
+import com.justlife.bookingservice.repository.reactive.ReactiveWorkerRepository;
+import com.justlife.bookingservice.repository.reactive.ReactiveWorkerScheduleRepository;
+import com.justlife.bookingservice.service.ICheckAvailabilityService;
+import com.justlife.bookingservice.service.IReactiveQueryService;
+import com.justlife.bookingservice.service.IWorkerScheduleIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Read-only queries that never block an event loop thread on the database. Workers and bookings are read
+ * over R2DBC, the bookings are installed in the shared schedule index, and availability is then decided by
+ * the same {@link ICheckAvailabilityService} the blocking endpoints use. That check runs on the bounded
+ * elastic scheduler, because it loads a worker-day over JDBC itself if the day was evicted since it was
+ * installed.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveQueryService implements IReactiveQueryService {
+
+    private static final int WORKER_PAGE_SIZE = 200;
+
+    // a day's bookings are read again if a booking change lands, or a JDBC load holds the day, while they
+    // are being read; after the last attempt the index loads them itself, over JDBC on a thread that may block
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final ReactiveWorkerRepository reactiveWorkerRepository;
+
+    private final ReactiveWorkerScheduleRepository reactiveWorkerScheduleRepository;
+
+    private final ReactiveBookingDetailRepository reactiveBookingDetailRepository;
+
+    private final IWorkerScheduleIndex workerScheduleIndex;
+
+    private final ICheckAvailabilityService availabilityCheckService;
+
+    /**
+     * Checks the availability of workers on a given date.
+     *
+     * @param date            the date to check availability for
+     * @param workersRequired the number of workers required
+     * @return the available workers
+     */
+    @Override
+    public Flux<Worker> checkAvailabilityForDate(LocalDate date, int workersRequired) {
+        return scanWorkers(date, page -> availabilityCheckService.checkAvailabilityForDate(page, date, workersRequired))
+                .take(workersRequired);
+    }
+
+    /**
+     * Checks the availability of workers for a given date and time range.
+     *
+     * @param startTime       the start time of the required availability
+     * @param duration        the duration of the required availability
+     * @param workersRequired the number of workers required
+     * @return the available workers
+     */
+    @Override
+    public Flux<Worker> checkAvailabilityByDateTime(LocalDateTime startTime, int duration, int workersRequired) {
+        return scanWorkers(startTime.toLocalDate(),
+                page -> availabilityCheckService.checkAvailabilityByDateTime(page, startTime, duration, workersRequired))
+                .take(workersRequired);
+    }
+
+    /**
+     * Lists booking details in id order, starting after the given id.
+     *
+     * @param afterId  the id to start after, or null to start from the first booking detail
+     * @param limit    the maximum number of booking details to return
+     * @param from     only bookings starting at or after this time, if given
+     * @param to       only bookings starting before this time, if given
+     * @param workerId only bookings of this worker, if given
+     * @return the page of booking details
+     */
+    @Override
+    public Flux<BookingDetailView> getBookingDetails(Long afterId, int limit, LocalDateTime from, LocalDateTime to, Long workerId) {
+        return reactiveBookingDetailRepository.findPage(afterId == null ? 0L : afterId, workerId, from, to, limit);
+    }
+
+    @Override
+    public Flux<Worker> getAllWorkers() {
+        return reactiveWorkerRepository.findAll();
+    }
+
+    /**
+     * Reads the workers one keyset page at a time, loads each page's bookings for the day and hands the
+     * page to the availability check. Pages are read at most one ahead of the check, so cancelling after
+     * enough workers are found stops reading.
+     */
+    private Flux<Worker> scanWorkers(LocalDate day, Function<List<Worker>, List<Worker>> availableInPage) {
+        return nextWorkerPage(0L)
+                .expand(page -> page.size() < WORKER_PAGE_SIZE
+                        ? Mono.empty()
+                        : nextWorkerPage(page.get(page.size() - 1).getId()))
+                .concatMap(page -> loadDay(day, page.stream().map(Worker::getId).toList())
+                        .then(Mono.fromCallable(() -> availableInPage.apply(page)).subscribeOn(Schedulers.boundedElastic())), 1)
+                .concatMapIterable(Function.identity());
+    }
+
+    private Mono<List<Worker>> nextWorkerPage(Long afterId) {
+        return reactiveWorkerRepository.findPage(afterId, WORKER_PAGE_SIZE).collectList();
+    }
+
+    private Mono<Void> loadDay(LocalDate day, List<Long> workerIds) {
+        return Mono.defer(() -> {
+                    List<Long> missing = workerScheduleIndex.missing(day, workerIds);
+                    if (missing.isEmpty()) {
+                        return Mono.just(true);
+                    }
+                    long changeCount = workerScheduleIndex.changeCount(day);
+                    return reactiveWorkerScheduleRepository.findBookingIntervals(missing, day.atStartOfDay(), day.plusDays(1).atStartOfDay())
+                            .collectList()
+                            .map(intervals -> workerScheduleIndex.load(day, missing, intervals, changeCount));
+                })
+                .repeat(MAX_LOAD_ATTEMPTS - 1)
+                .takeUntil(Boolean::booleanValue)
+                .filter(Boolean::booleanValue)
+                .next()
+                .switchIfEmpty(Mono.fromCallable(() -> {
+                            workerScheduleIndex.preload(day, workerIds);
+                            return true;
+                        })
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .then();
+    }
+}
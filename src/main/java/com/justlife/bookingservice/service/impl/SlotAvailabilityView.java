@@ -0,0 +1,329 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.justlife.bookingservice.event.BookingChangedEvent;
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.event.VehicleChangedEvent;
+import com.justlife.bookingservice.event.WorkerChangedEvent;
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.WorkingHours;
+import com.justlife.bookingservice.repository.WorkerRepository;
+import com.justlife.bookingservice.service.ISlotAvailabilityView;
+import com.justlife.bookingservice.service.IWorkerScheduleIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.justlife.bookingservice.service.IWorkerScheduleIndex.SLOTS_PER_DAY;
+import static com.justlife.bookingservice.service.IWorkerScheduleIndex.SLOT_MINUTES;
+
+/**
+ * Resident view of how many workers of each vehicle are free for a booking of each duration starting
+ * at each 30-minute slot of a day.
+ * <p>
+ * A day is built from the whole fleet the first time it is read and is then kept current one worker at
+ * a time: a committed booking change recomputes the workers it touched from the schedule index, and a
+ * worker change recomputes that worker on every built day. Reads never go back to the bookings, so they
+ * cost the same whatever the size of the fleet.
+ * <p>
+ * At most {@code booking.slot-view.max-days} days are kept; the least used ones are dropped and built
+ * again when next read. As with the schedule index, changes committed on other nodes are applied when
+ * the outbox relays them.
+ */
+@Service
+public class SlotAvailabilityView implements ISlotAvailabilityView {
+
+    private static final int WORKER_PAGE_SIZE = 200;
+
+    private final WorkerRepository workerRepository;
+
+    private final IWorkerScheduleIndex workerScheduleIndex;
+
+    private final Cache<LocalDate, DayView> days;
+
+    public SlotAvailabilityView(WorkerRepository workerRepository, IWorkerScheduleIndex workerScheduleIndex,
+                                @Value("${booking.slot-view.max-days:90}") long maxDays) {
+        this.workerRepository = workerRepository;
+        this.workerScheduleIndex = workerScheduleIndex;
+        this.days = Caffeine.newBuilder()
+                .maximumSize(maxDays)
+                .build();
+    }
+
+    /**
+     * Returns the slots of a day from which some vehicle has a crew of at least the given size free for
+     * the given duration, building the day first if needed. Bit {@code i} stands for the slot starting
+     * {@code i * 30} minutes after midnight.
+     *
+     * @param day      the day to look up
+     * @param duration the booking duration in hours
+     * @param crewSize the number of workers required
+     * @return the bitmap of start slots
+     */
+    @Override
+    public long crewStartSlots(LocalDate day, int duration, int crewSize) {
+        int d = durationIndex(duration);
+        if (d < 0 || crewSize < 1 || crewSize > MAX_CREW_SIZE) {
+            throw new IllegalArgumentException("No free crews are kept for " + crewSize + " workers and " + duration + " hours");
+        }
+        DayView view = builtDay(day);
+        view.lock.lock();
+        try {
+            return view.crewStartSlots(d, crewSize);
+        } finally {
+            view.lock.unlock();
+        }
+    }
+
+    /**
+     * Recomputes the workers of a committed booking change on the built days it moved from and to.
+     * Ordered after the schedule index ({@code @Order(0)}), whose busy slots it recomputes from.
+     *
+     * @param event the booking change
+     */
+    @Override
+    @Order(1)
+    @TransactionalEventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.previousStartTime() != null) {
+            recompute(event.previousStartTime().toLocalDate(), event.workerIds());
+        }
+        recompute(event.startTime().toLocalDate(), event.workerIds());
+    }
+
+    /**
+     * Recomputes the workers of a booking change relayed from the outbox, which may have been committed
+     * on another node. Ordered after the schedule index, as for {@link #onBookingChanged}.
+     *
+     * @param event the relayed booking change
+     */
+    @Override
+    @Order(1)
+    @EventListener
+    public void onBookingEvent(BookingEvent event) {
+        onBookingChanged(BookingChangedEvent.of(event));
+    }
+
+    /**
+     * Recomputes a created, updated or deleted worker on every built day, as their working hours,
+     * working days or vehicle may have changed.
+     *
+     * @param event the worker change
+     */
+    @Override
+    @EventListener
+    public void onWorkerChanged(WorkerChangedEvent event) {
+        if (days.asMap().isEmpty()) {
+            return;
+        }
+        Optional<Worker> worker = workerRepository.findById(event.workerId());
+        days.asMap().forEach((day, view) -> {
+            view.lock.lock();
+            try {
+                if (view.built) {
+                    view.put(event.workerId(), worker.map(wrk -> slotsOf(wrk, day)).orElse(null));
+                }
+            } finally {
+                view.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Drops every day, as a vehicle change can regroup any number of workers. Days are rebuilt on next read.
+     *
+     * @param event the vehicle change
+     */
+    @Override
+    @EventListener
+    public void onVehicleChanged(VehicleChangedEvent event) {
+        days.invalidateAll();
+    }
+
+    /**
+     * Drops the days before today. They are built again if read.
+     */
+    @Scheduled(cron = "${booking.slot-view.purge-cron:0 5 0 * * *}")
+    public void purgePastDays() {
+        LocalDate today = LocalDate.now();
+        days.asMap().keySet().removeIf(day -> day.isBefore(today));
+    }
+
+    private DayView builtDay(LocalDate day) {
+        DayView view = days.get(day, d -> new DayView());
+        if (!view.built) {
+            // the view is in the map before anything is read, so a change committed while building waits
+            // on the lock and is applied on top, and one committed earlier is already in the schedule index
+            view.lock.lock();
+            try {
+                if (!view.built) {
+                    build(day, view);
+                    view.built = true;
+                }
+            } finally {
+                view.lock.unlock();
+            }
+        }
+        return view;
+    }
+
+    private void build(LocalDate day, DayView view) {
+        for (List<Worker> page = nextWorkerPage(0L); !page.isEmpty();
+             page = page.size() < WORKER_PAGE_SIZE ? List.of() : nextWorkerPage(page.get(page.size() - 1).getId())) {
+            workerScheduleIndex.preload(day, page.stream().map(Worker::getId).toList());
+            for (Worker worker : page) {
+                view.put(worker.getId(), slotsOf(worker, day));
+            }
+        }
+    }
+
+    private List<Worker> nextWorkerPage(Long afterId) {
+        return workerRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(WORKER_PAGE_SIZE));
+    }
+
+    private void recompute(LocalDate day, List<Long> workerIds) {
+        DayView view = days.getIfPresent(day);
+        if (view == null) {
+            return;
+        }
+        view.lock.lock();
+        try {
+            if (!view.built) {
+                return;
+            }
+            for (Long workerId : workerIds) {
+                WorkerSlots previous = view.workers.get(workerId);
+                if (previous != null) {
+                    view.put(workerId, slotsOf(previous.vehicleId(), previous.workingSlots(), workerId, day));
+                }
+            }
+        } finally {
+            view.lock.unlock();
+        }
+    }
+
+    /**
+     * The free start slots of a worker on a day, or null if the worker does not count towards any crew.
+     */
+    private WorkerSlots slotsOf(Worker worker, LocalDate day) {
+        if (worker.getVehicle() == null || !worker.isWorkingOn(day.getDayOfWeek())) {
+            return null;
+        }
+        return slotsOf(worker.getVehicle().getId(), workingSlots(worker.getWorkingHours()), worker.getId(), day);
+    }
+
+    private WorkerSlots slotsOf(Long vehicleId, long workingSlots, Long workerId, LocalDate day) {
+        long freeSlots = workingSlots & ~workerScheduleIndex.busySlots(workerId, day);
+        long[] starts = new long[BOOKING_DURATIONS.size()];
+        for (int d = 0; d < starts.length; d++) {
+            starts[d] = freeStarts(freeSlots, BOOKING_DURATIONS.get(d) * 60 / SLOT_MINUTES);
+        }
+        return new WorkerSlots(vehicleId, workingSlots, starts);
+    }
+
+    private static int durationIndex(int duration) {
+        return BOOKING_DURATIONS.indexOf(duration);
+    }
+
+    /**
+     * Bitmap of the slots that lie entirely within the working hours.
+     */
+    static long workingSlots(WorkingHours workingHours) {
+        int first = -Math.floorDiv(-workingHours.startMinute(), SLOT_MINUTES);
+        int last = workingHours.endMinute() / SLOT_MINUTES;
+        return last <= first ? 0L : ((1L << (last - first)) - 1) << first;
+    }
+
+    /**
+     * Bitmap of the slots from which the given number of consecutive slots are all free.
+     */
+    static long freeStarts(long freeSlots, int slots) {
+        long starts = freeSlots;
+        for (int k = 1; k < slots; k++) {
+            starts &= freeSlots >>> k;
+        }
+        return starts;
+    }
+
+    /**
+     * What one worker adds to their vehicle's free crew sizes on one day.
+     *
+     * @param vehicleId    the worker's vehicle
+     * @param workingSlots the slots within the worker's working hours
+     * @param starts       per booking duration, the slots the worker is free to start from
+     */
+    private record WorkerSlots(Long vehicleId, long workingSlots, long[] starts) {
+    }
+
+    /**
+     * The free crew sizes of one day, guarded by a lock rather than a monitor for the same reason as the
+     * schedule index's days: building holds it across database queries.
+     */
+    private static final class DayView {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private volatile boolean built;
+
+        private final Map<Long, WorkerSlots> workers = new HashMap<>();
+
+        // vehicle id -> [duration][slot] number of the vehicle's workers free from that slot
+        private final Map<Long, int[][]> vehicleCounts = new HashMap<>();
+
+        // [duration][n][slot] number of vehicles with more than n workers free from that slot
+        private final int[][][] vehiclesWithCrew = new int[BOOKING_DURATIONS.size()][MAX_CREW_SIZE][SLOTS_PER_DAY];
+
+        private long crewStartSlots(int d, int crewSize) {
+            int[] vehicles = vehiclesWithCrew[d][crewSize - 1];
+            long slots = 0L;
+            for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                if (vehicles[slot] > 0) {
+                    slots |= 1L << slot;
+                }
+            }
+            return slots;
+        }
+
+        /**
+         * Replaces a worker's contribution, touching only the slots of their old and new free starts.
+         */
+        private void put(Long workerId, WorkerSlots slots) {
+            WorkerSlots previous = slots == null ? workers.remove(workerId) : workers.put(workerId, slots);
+            if (previous != null) {
+                apply(previous, -1);
+            }
+            if (slots != null) {
+                apply(slots, 1);
+            }
+        }
+
+        private void apply(WorkerSlots slots, int delta) {
+            int[][] counts = vehicleCounts.computeIfAbsent(slots.vehicleId(), id -> new int[BOOKING_DURATIONS.size()][SLOTS_PER_DAY]);
+            for (int d = 0; d < counts.length; d++) {
+                for (long remaining = slots.starts()[d]; remaining != 0; remaining &= remaining - 1) {
+                    int slot = Long.numberOfTrailingZeros(remaining);
+                    int before = counts[d][slot];
+                    int after = before + delta;
+                    counts[d][slot] = after;
+                    // the vehicle crosses the "more than n free" line for n = min(before, after)
+                    int crossed = Math.min(before, after);
+                    if (crossed < MAX_CREW_SIZE) {
+                        vehiclesWithCrew[d][crossed][slot] += delta;
+                    }
+                }
+            }
+        }
+    }
+}
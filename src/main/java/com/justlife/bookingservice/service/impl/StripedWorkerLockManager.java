@@ -0,0 +1,182 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.service.IWorkerLockManager;
+import com.justlife.bookingservice.service.IWorkerLockManager.StripeStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process lock registry that serializes bookings touching the same workers on a single node.
+ * <p>
+ * Worker ids are hashed onto a fixed number of lock stripes. The stripes of a booking are always taken in
+ * ascending order, so two bookings can never deadlock, and they are held until the surrounding transaction
+ * completes. A booking that waited has already picked its crew, so it still fails the re-check and retries
+ * if the one it waited for took a shared worker; the stripes only move that wait from the database into
+ * this node. Because stripes are shared, bookings for different workers can also block each other.
+ * <p>
+ * Off by default, as the worker version bump in the booking transaction already serializes bookings for the
+ * same workers without coupling unrelated ones. Turned on with {@code booking.worker-locks.enabled=true}.
+ */
+@Service
+public class StripedWorkerLockManager implements IWorkerLockManager, MeterBinder {
+
+    private final boolean enabled;
+
+    private final long timeoutMillis;
+
+    private final Stripe[] stripes;
+
+    public StripedWorkerLockManager(@Value("${booking.worker-locks.enabled:false}") boolean enabled,
+                                    @Value("${booking.worker-locks.stripes:64}") int stripeCount,
+                                    @Value("${booking.worker-locks.timeout-ms:5000}") long timeoutMillis) {
+        this.enabled = enabled;
+        this.timeoutMillis = timeoutMillis;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Locks the stripes of the given workers until the current transaction commits or rolls back.
+     *
+     * @param workerIds the workers to lock
+     * @throws CannotAcquireLockException if a stripe is still held by another booking after the timeout
+     */
+    @Override
+    public void lockUntilCompletion(Collection<Long> workerIds) {
+        if (!enabled || workerIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Worker locks can only be taken inside a transaction");
+        }
+
+        int[] stripeIndexes = workerIds.stream().mapToInt(this::stripeIndex).distinct().sorted().toArray();
+        List<Stripe> acquired = new ArrayList<>(stripeIndexes.length);
+        try {
+            for (int stripeIndex : stripeIndexes) {
+                Stripe stripe = stripes[stripeIndex];
+                stripe.acquire(timeoutMillis);
+                acquired.add(stripe);
+            }
+        } catch (RuntimeException e) {
+            acquired.forEach(Stripe::release);
+            throw e;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                acquired.forEach(Stripe::release);
+            }
+        });
+    }
+
+    /**
+     * Returns the contention counters of every stripe.
+     *
+     * @return one entry per stripe, in stripe order
+     */
+    @Override
+    public List<StripeStats> getStripeStats() {
+        List<StripeStats> stats = new ArrayList<>(stripes.length);
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[i];
+            stats.add(new StripeStats(i, stripe.acquisitions.sum(), stripe.timeouts.sum(),
+                    stripe.waitNanos.sum(), stripe.holdNanos.sum()));
+        }
+        return stats;
+    }
+
+    /**
+     * Publishes each stripe's counters as the {@code booking.worker.locks.wait} and
+     * {@code booking.worker.locks.hold} timers and the {@code booking.worker.locks.timeouts} counter, tagged
+     * with the stripe's index so that one hot stripe is not averaged away by the idle ones.
+     *
+     * @param registry the registry to publish to
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[i];
+            String index = String.valueOf(i);
+            FunctionTimer.builder("booking.worker.locks.wait", stripe,
+                            s -> s.acquisitions.sum() + s.timeouts.sum(), s -> s.waitNanos.sum(), TimeUnit.NANOSECONDS)
+                    .tag("stripe", index)
+                    .description("Time spent waiting for a worker lock stripe")
+                    .register(registry);
+            FunctionTimer.builder("booking.worker.locks.hold", stripe,
+                            s -> s.acquisitions.sum(), s -> s.holdNanos.sum(), TimeUnit.NANOSECONDS)
+                    .tag("stripe", index)
+                    .description("Time a worker lock stripe was held")
+                    .register(registry);
+            FunctionCounter.builder("booking.worker.locks.timeouts", stripe, s -> s.timeouts.sum())
+                    .tag("stripe", index)
+                    .description("Bookings rejected after waiting too long for a worker lock stripe")
+                    .register(registry);
+        }
+    }
+
+    private int stripeIndex(Long workerId) {
+        return Math.floorMod(Long.hashCode(workerId), stripes.length);
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final LongAdder acquisitions = new LongAdder();
+
+        private final LongAdder timeouts = new LongAdder();
+
+        private final LongAdder waitNanos = new LongAdder();
+
+        private final LongAdder holdNanos = new LongAdder();
+
+        // only read and written by the thread holding the lock
+        private long acquiredAt;
+
+        void acquire(long timeoutMillis) {
+            long waitStart = System.nanoTime();
+            boolean locked;
+            try {
+                locked = lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for worker lock", e);
+            }
+            long now = System.nanoTime();
+            waitNanos.add(now - waitStart);
+            if (!locked) {
+                timeouts.increment();
+                throw new CannotAcquireLockException("Workers are being booked by another request, please try again");
+            }
+            if (lock.getHoldCount() == 1) {
+                acquiredAt = now;
+            }
+            acquisitions.increment();
+        }
+
+        void release() {
+            if (lock.getHoldCount() == 1) {
+                holdNanos.add(System.nanoTime() - acquiredAt);
+            }
+            lock.unlock();
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.justlife.bookingservice.service.impl;
 
+import com.justlife.bookingservice.event.VehicleChangedEvent;
 import com.justlife.bookingservice.model.Vehicle;
 import com.justlife.bookingservice.repository.VehicleRepository;
 import com.justlife.bookingservice.service.IVehicleService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,6 +17,8 @@ public class VehicleService implements IVehicleService {
 
     private final VehicleRepository vehicleRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Override
     public Optional<Vehicle> getVehicleById(Long id) {
         return vehicleRepository.findById(id);
@@ -22,14 +26,18 @@ public class VehicleService implements IVehicleService {
 
     @Override
     public Vehicle createVehicle(Vehicle vehicle) {
-        return vehicleRepository.save(vehicle);
+        Vehicle savedVehicle = vehicleRepository.save(vehicle);
+        eventPublisher.publishEvent(new VehicleChangedEvent(savedVehicle.getId()));
+        return savedVehicle;
     }
 
     @Override
     public Optional<Vehicle> updateVehicle(Long id, Vehicle vehicle) {
         return vehicleRepository.findById(id).map(existingVehicle -> {
             vehicle.setId(id);
-            return vehicleRepository.save(vehicle);
+            Vehicle savedVehicle = vehicleRepository.save(vehicle);
+            eventPublisher.publishEvent(new VehicleChangedEvent(id));
+            return savedVehicle;
         });
     }
 
@@ -37,6 +45,7 @@ public class VehicleService implements IVehicleService {
     public boolean deleteVehicle(Long id) {
         return vehicleRepository.findById(id).map(vehicle -> {
             vehicleRepository.deleteById(id);
+            eventPublisher.publishEvent(new VehicleChangedEvent(id));
             return true;
         }).orElse(false);
     }
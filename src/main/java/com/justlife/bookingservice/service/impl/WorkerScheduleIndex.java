@@ -0,0 +1,444 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.event.BookingChangedEvent;
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.model.projection.BookingInterval;
+import com.justlife.bookingservice.repository.WorkerScheduleRepository;
+import com.justlife.bookingservice.service.IWorkerScheduleIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Resident index of every worker's bookings, bucketed by day.
+ * <p>
+ * A worker's day is loaded from the database the first time it is asked for and is then kept
+ * current from {@link BookingChangedEvent}s, so repeated availability checks never hit the database.
+ * Loading is done in bulk for a whole set of workers with a single query on the worker schedule table.
+ * <p>
+ * At most {@code booking.schedule-index.max-days} days are kept; the least used ones are dropped and
+ * loaded again when next asked for. Changes committed on this node are applied as soon as they commit;
+ * changes committed on other nodes are applied when the outbox relays them as {@link BookingEvent}s,
+ * so until then a read here can be stale. Applying a change is idempotent, so this node's own changes
+ * coming back through the relay do no harm. Admission re-checks the database, so a stale read cannot
+ * double-book a worker.
+ */
+@Service
+public class WorkerScheduleIndex implements IWorkerScheduleIndex {
+
+    private static final int BREAK_MINUTES = 30;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    // keeps the IN list well below the bind parameter limit of the JDBC driver
+    private static final int MAX_WORKERS_PER_QUERY = 1000;
+
+    // a new day bucket starts its change count past every count handed out for an evicted bucket of the
+    // same day, so a load based on the evicted bucket's count is refused
+    private static final long BUCKET_GENERATION = 1L << 32;
+
+    private final WorkerScheduleRepository workerScheduleRepository;
+
+    private final Cache<LocalDate, DayBucket> days;
+
+    private final AtomicLong generations = new AtomicLong();
+
+    public WorkerScheduleIndex(WorkerScheduleRepository workerScheduleRepository,
+                               @Value("${booking.schedule-index.max-days:90}") long maxDays) {
+        this.workerScheduleRepository = workerScheduleRepository;
+        this.days = Caffeine.newBuilder()
+                .maximumSize(maxDays)
+                .build();
+    }
+
+    /**
+     * Loads the given workers' bookings for a day, skipping the workers that are already loaded.
+     *
+     * @param day       the day to load
+     * @param workerIds the workers to load
+     */
+    @Override
+    public void preload(LocalDate day, Collection<Long> workerIds) {
+        preload(day, day, workerIds);
+    }
+
+    /**
+     * Loads the given workers' bookings for every day of a range with one query per chunk of workers,
+     * skipping the worker-days that are already loaded.
+     *
+     * @param from      the first day to load
+     * @param to        the last day to load, inclusive
+     * @param workerIds the workers to load
+     */
+    @Override
+    public void preload(LocalDate from, LocalDate to, Collection<Long> workerIds) {
+        List<LocalDate> dates = from.datesUntil(to.plusDays(1)).toList();
+        preload(dates, dates.stream().map(this::bucket).toList(), workerIds);
+    }
+
+    private void preload(List<LocalDate> dates, List<DayBucket> buckets, Collection<Long> workerIds) {
+        if (missing(buckets, workerIds).isEmpty()) {
+            return;
+        }
+
+        // serialized with onBookingChanged so a change committed while loading is not lost; the days are
+        // always locked in date order and nothing else holds two of them, so this cannot deadlock
+        buckets.forEach(bucket -> bucket.lock.lock());
+        try {
+            List<Long> toLoad = missing(buckets, workerIds);
+            for (int start = 0; start < toLoad.size(); start += MAX_WORKERS_PER_QUERY) {
+                List<Long> chunk = toLoad.subList(start, Math.min(start + MAX_WORKERS_PER_QUERY, toLoad.size()));
+                Map<LocalDate, Map<Long, WorkerDay>> loaded = loadWorkerDays(chunk, dates.get(0), dates.get(dates.size() - 1));
+                for (int i = 0; i < dates.size(); i++) {
+                    loaded.get(dates.get(i)).forEach(buckets.get(i).workerDays::putIfAbsent);
+                }
+            }
+        } finally {
+            buckets.forEach(bucket -> bucket.lock.unlock());
+        }
+    }
+
+    /**
+     * Returns the given workers whose bookings for a day are not loaded yet.
+     *
+     * @param day       the day to look up
+     * @param workerIds the workers to look up
+     * @return the workers that still need loading
+     */
+    @Override
+    public List<Long> missing(LocalDate day, Collection<Long> workerIds) {
+        return missing(List.of(bucket(day)), workerIds);
+    }
+
+    /**
+     * Returns how many booking changes have been applied to a day so far. Taken before reading a day's
+     * bookings elsewhere and handed back to {@link #load}, it tells whether a change landed in between.
+     *
+     * @param day the day to look up
+     * @return the day's change count
+     */
+    @Override
+    public long changeCount(LocalDate day) {
+        return bucket(day).changes;
+    }
+
+    /**
+     * Installs bookings the caller read itself, for instance over a non-blocking connection, for workers
+     * that are not loaded yet. Nothing is installed if a booking change was applied to the day since
+     * {@code changeCount} was taken, as the bookings read may predate it.
+     * <p>
+     * Never waits for the day's lock, which a JDBC load holds across its query, so it is safe to call on
+     * an event loop thread. If the lock is taken nothing is installed either.
+     *
+     * @param day         the day the bookings belong to
+     * @param workerIds   the workers the bookings were read for
+     * @param intervals   the bookings of those workers on that day
+     * @param changeCount the day's change count taken before the bookings were read
+     * @return true if the bookings were installed, false if they must be read again
+     */
+    @Override
+    public boolean load(LocalDate day, Collection<Long> workerIds, List<BookingInterval> intervals, long changeCount) {
+        DayBucket bucket = bucket(day);
+        if (!bucket.lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (bucket.changes != changeCount) {
+                return false;
+            }
+            toWorkerDays(workerIds, day, day, intervals).get(day).forEach(bucket.workerDays::putIfAbsent);
+            return true;
+        } finally {
+            bucket.lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the given workers' bookings for a day so they are reloaded from the database on next use.
+     *
+     * @param day       the day to drop
+     * @param workerIds the workers to drop
+     */
+    @Override
+    public void evict(LocalDate day, Collection<Long> workerIds) {
+        DayBucket bucket = days.getIfPresent(day);
+        if (bucket != null) {
+            bucket.lock.lock();
+            try {
+                workerIds.forEach(bucket.workerDays::remove);
+            } finally {
+                bucket.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Checks if a worker has no booking within 30 minutes of the given time range.
+     *
+     * @param workerId  the worker to check
+     * @param startTime the start time of the required availability
+     * @param endTime   the end time of the required availability
+     * @return true if the worker is free for the given time range, false otherwise
+     */
+    @Override
+    public boolean isFree(Long workerId, LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDate day = startTime.toLocalDate();
+        return workerDay(workerId, day).isFree(minuteOfDay(day, startTime), minuteOfDay(day, endTime));
+    }
+
+    /**
+     * Returns the day's 30-minute slots a worker cannot be booked for, including the 30-minute break
+     * around each booking. Bit {@code i} stands for the slot starting {@code i * 30} minutes after midnight.
+     *
+     * @param workerId the worker to look up
+     * @param day      the day to look up
+     * @return the bitmap of busy slots
+     */
+    @Override
+    public long busySlots(Long workerId, LocalDate day) {
+        return workerDay(workerId, day).busySlots;
+    }
+
+    /**
+     * Applies a committed booking change to the worker-days that are already loaded.
+     * Worker-days that are not loaded yet will pick the change up from the database. Runs first among
+     * the after-commit listeners, as the slot availability view and the availability cache read from here.
+     *
+     * @param event the booking change
+     */
+    @Override
+    @Order(0)
+    @TransactionalEventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.previousStartTime() != null) {
+            DayBucket previousDay = days.getIfPresent(event.previousStartTime().toLocalDate());
+            if (previousDay != null) {
+                previousDay.lock.lock();
+                try {
+                    previousDay.changes++;
+                    event.workerIds().forEach(workerId -> previousDay.workerDays.computeIfPresent(workerId,
+                            (id, workerDay) -> workerDay.without(event.bookingId())));
+                } finally {
+                    previousDay.lock.unlock();
+                }
+            }
+        }
+
+        LocalDate day = event.startTime().toLocalDate();
+        DayBucket currentDay = days.getIfPresent(day);
+        if (currentDay != null) {
+            int start = minuteOfDay(day, event.startTime());
+            int end = minuteOfDay(day, event.endTime());
+            currentDay.lock.lock();
+            try {
+                currentDay.changes++;
+                event.workerIds().forEach(workerId -> currentDay.workerDays.computeIfPresent(workerId,
+                        (id, workerDay) -> workerDay.with(event.bookingId(), start, end)));
+            } finally {
+                currentDay.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Applies a booking change relayed from the outbox, which may have been committed on another node.
+     * Runs first among the relayed event's listeners, for the same reason as {@link #onBookingChanged}.
+     *
+     * @param event the relayed booking change
+     */
+    @Override
+    @Order(0)
+    @EventListener
+    public void onBookingEvent(BookingEvent event) {
+        onBookingChanged(BookingChangedEvent.of(event));
+    }
+
+    /**
+     * Drops the days before today. They are loaded again if asked for.
+     */
+    @Scheduled(cron = "${booking.schedule-index.purge-cron:0 5 0 * * *}")
+    public void purgePastDays() {
+        LocalDate today = LocalDate.now();
+        days.asMap().keySet().removeIf(day -> day.isBefore(today));
+    }
+
+    private DayBucket bucket(LocalDate day) {
+        return days.get(day, d -> new DayBucket(generations.incrementAndGet() * BUCKET_GENERATION));
+    }
+
+    private WorkerDay workerDay(Long workerId, LocalDate day) {
+        // works on the bucket it looked up, which stays usable for this read even if the day is evicted
+        DayBucket bucket = bucket(day);
+        WorkerDay workerDay = bucket.workerDays.get(workerId);
+        if (workerDay == null) {
+            preload(List.of(day), List.of(bucket), List.of(workerId));
+            workerDay = bucket.workerDays.get(workerId);
+        }
+        return workerDay;
+    }
+
+    private static List<Long> missing(List<DayBucket> buckets, Collection<Long> workerIds) {
+        return workerIds.stream()
+                .filter(id -> buckets.stream().anyMatch(bucket -> !bucket.workerDays.containsKey(id)))
+                .toList();
+    }
+
+    private Map<LocalDate, Map<Long, WorkerDay>> loadWorkerDays(List<Long> workerIds, LocalDate from, LocalDate to) {
+        return toWorkerDays(workerIds, from, to, workerScheduleRepository.findBookingIntervals(
+                workerIds, from.atStartOfDay(), to.plusDays(1).atStartOfDay()));
+    }
+
+    private static Map<LocalDate, Map<Long, WorkerDay>> toWorkerDays(Collection<Long> workerIds, LocalDate from, LocalDate to,
+                                                                      List<BookingInterval> intervals) {
+        Map<LocalDate, Map<Long, WorkerDay>> loaded = new HashMap<>();
+        from.datesUntil(to.plusDays(1)).forEach(day -> {
+            Map<Long, WorkerDay> workerDays = new HashMap<>();
+            workerIds.forEach(id -> workerDays.put(id, WorkerDay.EMPTY));
+            loaded.put(day, workerDays);
+        });
+        for (BookingInterval interval : intervals) {
+            LocalDate day = interval.startTime().toLocalDate();
+            if (!loaded.containsKey(day)) {
+                continue;
+            }
+            loaded.get(day).computeIfPresent(interval.workerId(), (id, workerDay) -> workerDay.with(interval.bookingId(),
+                    minuteOfDay(day, interval.startTime()), minuteOfDay(day, interval.endTime())));
+        }
+        return loaded;
+    }
+
+    private static int minuteOfDay(LocalDate day, LocalDateTime dateTime) {
+        long days = dateTime.toLocalDate().toEpochDay() - day.toEpochDay();
+        return (int) (days * MINUTES_PER_DAY + dateTime.getHour() * 60L + dateTime.getMinute());
+    }
+
+    /**
+     * Bit mask of the 30-minute slots touched by the given minute range, clipped to the day.
+     */
+    private static long slotMask(int fromMinute, int toMinute) {
+        int first = Math.max(0, Math.floorDiv(fromMinute, SLOT_MINUTES));
+        int last = Math.min(SLOTS_PER_DAY, -Math.floorDiv(-toMinute, SLOT_MINUTES));
+        if (last <= first) {
+            return 0L;
+        }
+        return ((1L << (last - first)) - 1) << first;
+    }
+
+    /**
+     * The loaded worker-days of one day. Loads and applied changes are ordered by a lock rather than a
+     * monitor, because a load holds it across a database query and a virtual thread blocked inside a
+     * monitor would pin its carrier thread.
+     */
+    private static final class DayBucket {
+
+        private final ConcurrentMap<Long, WorkerDay> workerDays = new ConcurrentHashMap<>();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // written under the lock only
+        private volatile long changes;
+
+        private DayBucket(long changes) {
+            this.changes = changes;
+        }
+    }
+
+    /**
+     * Immutable, start-sorted bookings of one worker on one day, in minutes from midnight.
+     * <p>
+     * The bookings are also kept as a bitmap of the day's 48 half-hour slots, widened by the 30-minute
+     * break on both sides, so a slot-aligned request is checked with a single AND. Requests that are not
+     * slot-aligned fall back to scanning the intervals.
+     */
+    static final class WorkerDay {
+
+        static final WorkerDay EMPTY = new WorkerDay(new long[0], new int[0], new int[0]);
+
+        private final long[] bookingIds;
+        private final int[] starts;
+        private final int[] ends;
+        private final long busySlots;
+
+        private WorkerDay(long[] bookingIds, int[] starts, int[] ends) {
+            this.bookingIds = bookingIds;
+            this.starts = starts;
+            this.ends = ends;
+
+            long busy = 0L;
+            for (int i = 0; i < starts.length; i++) {
+                busy |= slotMask(starts[i] - BREAK_MINUTES, ends[i] + BREAK_MINUTES);
+            }
+            this.busySlots = busy;
+        }
+
+        boolean isFree(int start, int end) {
+            if (start % SLOT_MINUTES == 0 && end % SLOT_MINUTES == 0 && start >= 0 && end <= MINUTES_PER_DAY) {
+                return (busySlots & slotMask(start, end)) == 0;
+            }
+
+            for (int i = 0; i < starts.length && starts[i] - BREAK_MINUTES < end; i++) {
+                if (start < ends[i] + BREAK_MINUTES) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        WorkerDay with(long bookingId, int start, int end) {
+            WorkerDay base = without(bookingId);
+            int n = base.starts.length;
+            int pos = 0;
+            while (pos < n && base.starts[pos] <= start) {
+                pos++;
+            }
+
+            long[] newIds = new long[n + 1];
+            int[] newStarts = new int[n + 1];
+            int[] newEnds = new int[n + 1];
+            System.arraycopy(base.bookingIds, 0, newIds, 0, pos);
+            System.arraycopy(base.starts, 0, newStarts, 0, pos);
+            System.arraycopy(base.ends, 0, newEnds, 0, pos);
+            newIds[pos] = bookingId;
+            newStarts[pos] = start;
+            newEnds[pos] = end;
+            System.arraycopy(base.bookingIds, pos, newIds, pos + 1, n - pos);
+            System.arraycopy(base.starts, pos, newStarts, pos + 1, n - pos);
+            System.arraycopy(base.ends, pos, newEnds, pos + 1, n - pos);
+            return new WorkerDay(newIds, newStarts, newEnds);
+        }
+
+        WorkerDay without(long bookingId) {
+            for (int i = 0; i < bookingIds.length; i++) {
+                if (bookingIds[i] == bookingId) {
+                    long[] newIds = new long[bookingIds.length - 1];
+                    int[] newStarts = new int[starts.length - 1];
+                    int[] newEnds = new int[ends.length - 1];
+                    System.arraycopy(bookingIds, 0, newIds, 0, i);
+                    System.arraycopy(starts, 0, newStarts, 0, i);
+                    System.arraycopy(ends, 0, newEnds, 0, i);
+                    System.arraycopy(bookingIds, i + 1, newIds, i, newIds.length - i);
+                    System.arraycopy(starts, i + 1, newStarts, i, newStarts.length - i);
+                    System.arraycopy(ends, i + 1, newEnds, i, newEnds.length - i);
+                    return new WorkerDay(newIds, newStarts, newEnds);
+                }
+            }
+            return this;
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.justlife.bookingservice.service.impl;
 
+import com.justlife.bookingservice.event.WorkerChangedEvent;
 import com.justlife.bookingservice.model.Worker;
 import com.justlife.bookingservice.repository.WorkerRepository;
 import com.justlife.bookingservice.service.IWorkerService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,6 +17,8 @@ public class WorkerService implements IWorkerService {
 
     private final WorkerRepository workerRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Override
     public Optional<Worker> getWorkerById(Long id) {
         return workerRepository.findById(id);
@@ -22,14 +26,19 @@ public class WorkerService implements IWorkerService {
 
     @Override
     public Worker createWorker(Worker worker) {
-        return workerRepository.save(worker);
+        Worker savedWorker = workerRepository.save(worker);
+        eventPublisher.publishEvent(new WorkerChangedEvent(savedWorker.getId()));
+        return savedWorker;
     }
 
     @Override
     public Optional<Worker> updateWorker(Long id, Worker worker) {
         return workerRepository.findById(id).map(existingProfessional -> {
             worker.setId(id);
-            return workerRepository.save(worker);
+            worker.setVersion(existingProfessional.getVersion());
+            Worker savedWorker = workerRepository.save(worker);
+            eventPublisher.publishEvent(new WorkerChangedEvent(id));
+            return savedWorker;
         });
     }
 
@@ -37,6 +46,7 @@ public class WorkerService implements IWorkerService {
     public boolean deleteWorker(Long id) {
         return workerRepository.findById(id).map(professional -> {
             workerRepository.deleteById(id);
+            eventPublisher.publishEvent(new WorkerChangedEvent(id));
             return true;
         }).orElse(false);
     }
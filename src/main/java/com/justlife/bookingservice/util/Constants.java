@@ -3,5 +3,6 @@ package com.justlife.bookingservice.util;
 public class Constants {
     public static final String DATE_TIME_PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
     public static final String DATE_PATTERN = "yyyy-MM-dd";
+    public static final int MAX_RANGE_DAYS = 31;
 
 }
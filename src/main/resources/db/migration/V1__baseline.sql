@@ -0,0 +1,43 @@
+-- Starting schema for new databases. It is not the schema ddl-auto=update created: booking and
+-- booking_detail ids come from the booking_seq and booking_detail_seq sequences instead of identity
+-- columns, and worker already has its version column. Databases created by ddl-auto are baselined at
+-- this version without running it; V2 adds the sequences to them and V5 the version column.
+
+create sequence if not exists booking_seq start with 1 increment by 50;
+create sequence if not exists booking_detail_seq start with 1 increment by 50;
+
+create table vehicle (
+    id   bigint generated by default as identity,
+    name varchar(255),
+    primary key (id)
+);
+
+create table worker (
+    id                 bigint generated by default as identity,
+    name               varchar(255),
+    available          boolean not null,
+    working_hours      varchar(255),
+    working_on_fridays boolean not null,
+    vehicle_id         bigint,
+    version            bigint  not null default 0,
+    primary key (id),
+    constraint fk_worker_vehicle foreign key (vehicle_id) references vehicle (id)
+);
+
+create table booking (
+    id               bigint  not null,
+    start_time       timestamp(6),
+    end_time         timestamp(6),
+    duration         integer not null,
+    required_workers integer not null,
+    primary key (id)
+);
+
+create table booking_detail (
+    id         bigint not null,
+    booking_id bigint,
+    worker_id  bigint,
+    primary key (id),
+    constraint fk_booking_detail_booking foreign key (booking_id) references booking (id),
+    constraint fk_booking_detail_worker foreign key (worker_id) references worker (id)
+);
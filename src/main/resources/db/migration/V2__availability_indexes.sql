@@ -0,0 +1,9 @@
+-- Availability reads look up a worker's bookings, then range-filter them on start time.
+create index if not exists idx_booking_detail_worker_booking on booking_detail (worker_id, booking_id);
+create index if not exists idx_booking_start_end on booking (start_time, end_time);
+
+-- Databases baselined from ddl-auto may hold ids that were not drawn from the sequences.
+create sequence if not exists booking_seq start with 1 increment by 50;
+create sequence if not exists booking_detail_seq start with 1 increment by 50;
+select setval('booking_seq', (select coalesce(max(id), 0) + 1 from booking));
+select setval('booking_detail_seq', (select coalesce(max(id), 0) + 1 from booking_detail));
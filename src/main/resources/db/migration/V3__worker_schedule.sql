@@ -0,0 +1,27 @@
+-- One row per worker and booking, so availability reads are a single index range scan.
+create table worker_schedule (
+    id         bigint       not null,
+    worker_id  bigint       not null,
+    booking_id bigint       not null,
+    start_time timestamp(6) not null,
+    end_time   timestamp(6) not null,
+    primary key (id),
+    constraint fk_worker_schedule_worker foreign key (worker_id) references worker (id),
+    constraint fk_worker_schedule_booking foreign key (booking_id) references booking (id)
+);
+
+-- covers the whole interval query, so it can be answered from the index alone
+create index idx_worker_schedule_worker_start on worker_schedule (worker_id, start_time) include (end_time, booking_id);
+create index idx_worker_schedule_booking on worker_schedule (booking_id);
+
+create sequence worker_schedule_seq start with 1 increment by 50;
+
+insert into worker_schedule (id, worker_id, booking_id, start_time, end_time)
+select row_number() over (order by bd.id), bd.worker_id, bd.booking_id, b.start_time, b.end_time
+from booking_detail bd
+         join booking b on b.id = bd.booking_id
+where bd.worker_id is not null
+  and b.start_time is not null
+  and b.end_time is not null;
+
+select setval('worker_schedule_seq', (select coalesce(max(id), 0) + 1 from worker_schedule));
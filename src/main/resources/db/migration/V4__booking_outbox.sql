@@ -0,0 +1,18 @@
+-- Booking changes written in the booking's own transaction, then handed to consumers by a background publisher.
+create table booking_outbox (
+    id                  bigint        not null,
+    event_type          varchar(32)   not null,
+    booking_id          bigint        not null,
+    previous_start_time timestamp(6),
+    start_time          timestamp(6)  not null,
+    end_time            timestamp(6)  not null,
+    worker_ids          varchar(4000) not null,
+    created_at          timestamp(6)  not null,
+    published_at        timestamp(6),
+    primary key (id)
+);
+
+-- the publisher only reads unpublished rows, oldest first
+create index idx_booking_outbox_unpublished on booking_outbox (id) where published_at is null;
+
+create sequence booking_outbox_seq start with 1 increment by 50;
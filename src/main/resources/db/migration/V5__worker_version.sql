@@ -0,0 +1,2 @@
+-- Databases baselined at V1 were created by ddl-auto before workers carried a version column.
+alter table worker add column if not exists version bigint not null default 0;
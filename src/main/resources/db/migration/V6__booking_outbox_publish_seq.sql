@@ -0,0 +1,7 @@
+-- Outbox ids are taken from pooled blocks when a change is written, not when it commits, so they do not
+-- follow commit order. The publisher numbers entries from this sequence as it publishes them instead.
+alter table booking_outbox add column publish_seq bigint;
+
+create unique index idx_booking_outbox_publish_seq on booking_outbox (publish_seq);
+
+create sequence booking_outbox_publish_seq start with 1 increment by 1;
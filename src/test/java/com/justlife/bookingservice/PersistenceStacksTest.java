@@ -0,0 +1,51 @@
+package com.justlife.bookingservice;
+
+import com.justlife.bookingservice.repository.BookingRepository;
+import com.justlife.bookingservice.repository.WorkerRepository;
+import com.justlife.bookingservice.repository.reactive.ReactiveWorkerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the whole application against a real database and reads through both the JPA repositories and
+ * the R2DBC ones.
+ */
+@SpringBootTest(properties = "booking.scheduling.enabled=false")
+@Testcontainers(disabledWithoutDocker = true)
+class PersistenceStacksTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private WorkerRepository workerRepository;
+
+    @Autowired
+    private ReactiveWorkerRepository reactiveWorkerRepository;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":"
+                + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName() + "?schema=bookingschema");
+    }
+
+    @Test
+    void testJpaAndR2dbc_ReadTheSameDatabase() {
+        assertEquals(0, bookingRepository.count());
+        assertEquals(workerRepository.count(), reactiveWorkerRepository.findAll().count().block());
+    }
+}
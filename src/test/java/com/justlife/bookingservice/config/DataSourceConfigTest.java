@@ -0,0 +1,40 @@
+package com.justlife.bookingservice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSourceConfigTest {
+
+    private static final String JDBC_URL = "jdbc:postgresql://localhost:5432/bookingdb";
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(R2dbcAutoConfiguration.class, DataSourceAutoConfiguration.class))
+            .withPropertyValues("spring.datasource.url=" + JDBC_URL,
+                    "spring.r2dbc.url=r2dbc:postgresql://localhost:5432/bookingdb", "spring.r2dbc.username=root");
+
+    @Test
+    void testContext_WiresBothDataSourceAndConnectionFactory() {
+        contextRunner.withUserConfiguration(DataSourceConfig.class).run(context -> {
+            assertNull(context.getStartupFailure());
+            assertEquals(1, context.getBeanNamesForType(ConnectionFactory.class).length);
+            assertEquals(JDBC_URL, context.getBean(DataSource.class).unwrap(HikariDataSource.class).getJdbcUrl());
+        });
+    }
+
+    @Test
+    void testContext_WithoutDataSourceConfig_R2dbcDisplacesTheDataSource() {
+        contextRunner.run(context -> {
+            assertEquals(1, context.getBeanNamesForType(ConnectionFactory.class).length);
+            assertEquals(0, context.getBeanNamesForType(DataSource.class).length);
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.justlife.bookingservice.config;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.Invocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test assertions that lock in how many queries an operation may run, so that a lookup moved into a
+ * per-worker loop fails the build instead of showing up as a slow endpoint.
+ */
+public final class QueryBudget {
+
+    private QueryBudget() {
+    }
+
+    /**
+     * Runs {@code action} and fails if it made more than {@code maxQueries} calls on the given repository
+     * mocks. Every repository method is one query, so this is the unit-test stand-in for the statement count.
+     */
+    public static <T> T assertQueriesAtMost(int maxQueries, Action<T> action, Object... repositoryMocks) throws Exception {
+        List<Integer> before = new ArrayList<>();
+        for (Object repository : repositoryMocks) {
+            if (!Mockito.mockingDetails(repository).isMock()) {
+                throw new IllegalArgumentException(repository + " is not a mock");
+            }
+            before.add(Mockito.mockingDetails(repository).getInvocations().size());
+        }
+
+        T result = action.run();
+
+        List<Invocation> queries = new ArrayList<>();
+        for (int i = 0; i < repositoryMocks.length; i++) {
+            List<Invocation> invocations = new ArrayList<>(Mockito.mockingDetails(repositoryMocks[i]).getInvocations());
+            queries.addAll(invocations.subList(before.get(i), invocations.size()));
+        }
+        assertTrue(queries.size() <= maxQueries, () -> "Expected at most " + maxQueries + " queries but ran "
+                + queries.size() + ":\n" + queries.stream().map(Invocation::toString).collect(Collectors.joining("\n")));
+        return result;
+    }
+
+    /**
+     * Runs {@code action} and fails if Hibernate prepared more than {@code maxStatements} SQL statements on
+     * this thread, for tests that run against a real database.
+     */
+    public static <T> T assertStatementsAtMost(int maxStatements, SqlStatementCounter counter, Action<T> action)
+            throws Exception {
+        counter.startRequest();
+        try {
+            T result = action.run();
+            assertTrue(counter.count() <= maxStatements, () -> "Expected at most " + maxStatements
+                    + " SQL statements but ran " + counter.count() + "; most repeated ("
+                    + counter.mostRepeatedCount() + "x): " + counter.mostRepeatedStatement());
+            return result;
+        } finally {
+            counter.reset();
+        }
+    }
+
+    @FunctionalInterface
+    public interface Action<T> {
+
+        T run() throws Exception;
+    }
+}
@@ -0,0 +1,95 @@
+package com.justlife.bookingservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs requests through the statement counting filter and the budget interceptor with
+ * {@code fail-requests} on and a default budget of three statements.
+ */
+class SqlStatementBudgetInterceptorTest {
+
+    private static final String WORKER_QUERY = "select w1_0.id from worker w1_0 where w1_0.id=?";
+
+    private final SqlStatementCounter counter = new SqlStatementCounter(3, true);
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new StatementsController(counter))
+                .addFilters(new SqlStatementMetricsFilter(counter, new SimpleMeterRegistry()))
+                .addInterceptors(new SqlStatementBudgetInterceptor(counter))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        counter.reset();
+    }
+
+    @Test
+    void testRequest_OverTheDefaultBudget_Fails() {
+        // When
+        ServletException exception = assertThrows(ServletException.class, () -> mockMvc.perform(get("/default")));
+
+        // Then
+        assertInstanceOf(SqlStatementCounter.BudgetExceededException.class, exception.getCause());
+        assertTrue(exception.getCause().getMessage().contains(WORKER_QUERY));
+    }
+
+    @Test
+    void testRequest_WithinItsHandlersBudget_Succeeds() throws Exception {
+        mockMvc.perform(get("/raised")).andExpect(status().isOk());
+    }
+
+    @Test
+    void testRequest_ToAnExemptHandler_Succeeds() throws Exception {
+        mockMvc.perform(get("/exempt")).andExpect(status().isOk());
+    }
+
+    @RestController
+    static class StatementsController {
+
+        private final SqlStatementCounter counter;
+
+        StatementsController(SqlStatementCounter counter) {
+            this.counter = counter;
+        }
+
+        @GetMapping("/default")
+        String defaultBudget() {
+            return run(5);
+        }
+
+        @GetMapping("/raised")
+        @SqlStatementBudget(10)
+        String raisedBudget() {
+            return run(5);
+        }
+
+        @GetMapping("/exempt")
+        @SqlStatementBudget(SqlStatementBudget.UNLIMITED)
+        String exempt() {
+            return run(50);
+        }
+
+        private String run(int statements) {
+            for (int i = 0; i < statements; i++) {
+                counter.inspect(WORKER_QUERY);
+            }
+            return "ok";
+        }
+    }
+}
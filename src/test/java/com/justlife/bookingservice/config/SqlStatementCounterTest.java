@@ -0,0 +1,107 @@
+package com.justlife.bookingservice.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementCounterTest {
+
+    private static final String WORKER_QUERY = "select w1_0.id from worker w1_0 where w1_0.id=?";
+
+    private final SqlStatementCounter counter = new SqlStatementCounter(2, false);
+
+    @AfterEach
+    void tearDown() {
+        counter.reset();
+    }
+
+    @Test
+    void testInspect_TracksMostRepeatedStatement() {
+        // Given
+        counter.startRequest();
+
+        // When
+        counter.inspect("select b1_0.id from booking b1_0");
+        counter.inspect(WORKER_QUERY);
+        counter.inspect(WORKER_QUERY);
+
+        // Then
+        assertEquals(3, counter.count());
+        assertTrue(counter.overBudget());
+        assertEquals(WORKER_QUERY, counter.mostRepeatedStatement());
+        assertEquals(2, counter.mostRepeatedCount());
+    }
+
+    @Test
+    void testInspect_FailModeThrowsOnStatementOverBudget() {
+        // Given
+        SqlStatementCounter failing = new SqlStatementCounter(2, true);
+        failing.startRequest();
+        failing.inspect(WORKER_QUERY);
+        failing.inspect(WORKER_QUERY);
+
+        // When & Then
+        SqlStatementCounter.BudgetExceededException exception = assertThrows(SqlStatementCounter.BudgetExceededException.class,
+                () -> failing.inspect(WORKER_QUERY));
+        assertTrue(exception.getMessage().contains(WORKER_QUERY));
+        failing.reset();
+    }
+
+    @Test
+    void testInspect_OutsideRequestOnlyCounts() {
+        // Given
+        SqlStatementCounter failing = new SqlStatementCounter(1, true);
+        failing.reset();
+
+        // When
+        failing.inspect(WORKER_QUERY);
+        failing.inspect(WORKER_QUERY);
+
+        // Then
+        assertEquals(2, failing.count());
+        assertNull(failing.mostRepeatedStatement());
+        failing.reset();
+    }
+
+    @Test
+    void testBudget_HandlerBudgetReplacesTheDefault() {
+        // Given
+        SqlStatementCounter failing = new SqlStatementCounter(1, true);
+        failing.startRequest();
+
+        // When
+        failing.budget(3);
+        failing.inspect(WORKER_QUERY);
+        failing.inspect(WORKER_QUERY);
+        failing.inspect(WORKER_QUERY);
+
+        // Then
+        assertEquals(3, failing.budget());
+        assertFalse(failing.overBudget());
+        assertThrows(SqlStatementCounter.BudgetExceededException.class, () -> failing.inspect(WORKER_QUERY));
+        failing.reset();
+    }
+
+    @Test
+    void testBudget_UnlimitedOnlyCounts() {
+        // Given
+        SqlStatementCounter failing = new SqlStatementCounter(1, true);
+        failing.startRequest();
+
+        // When
+        failing.budget(SqlStatementBudget.UNLIMITED);
+        failing.inspect(WORKER_QUERY);
+        failing.inspect(WORKER_QUERY);
+
+        // Then
+        assertEquals(2, failing.count());
+        assertFalse(failing.overBudget());
+        failing.reset();
+    }
+
+    @Test
+    void testConstructor_NonPositiveBudget_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new SqlStatementCounter(0, false));
+    }
+}
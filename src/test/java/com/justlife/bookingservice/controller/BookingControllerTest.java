@@ -2,21 +2,40 @@ package com.justlife.bookingservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.justlife.bookingservice.dto.AvailabilityCalendar;
+import com.justlife.bookingservice.dto.BookingResult;
+import com.justlife.bookingservice.handler.CustomExceptionHandler;
 import com.justlife.bookingservice.model.Booking;
-import com.justlife.bookingservice.model.BookingDetail;
 import com.justlife.bookingservice.model.Vehicle;
 import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.WorkingHours;
+import com.justlife.bookingservice.model.projection.BookingDetailView;
+import com.justlife.bookingservice.repository.BookingDetailRepository;
+import com.justlife.bookingservice.repository.WorkerRepository;
+import com.justlife.bookingservice.repository.WorkerScheduleRepository;
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.service.IAvailabilityFeed;
 import com.justlife.bookingservice.service.IBookingService;
+import com.justlife.bookingservice.service.IWorkerScheduleIndex;
+import com.justlife.bookingservice.service.impl.AvailabilityFeed;
 import com.justlife.bookingservice.service.ICheckAvailabilityService;
+import com.justlife.bookingservice.service.impl.CachingCheckAvailabilityService;
+import com.justlife.bookingservice.service.impl.CheckAvailabilityService;
+import com.justlife.bookingservice.service.impl.SlotAvailabilityView;
+import com.justlife.bookingservice.service.impl.WorkerScheduleIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
@@ -24,7 +43,14 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.justlife.bookingservice.config.QueryBudget.assertQueriesAtMost;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -33,23 +59,28 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ExtendWith(MockitoExtension.class)
 class BookingControllerTest {
 
+    private static final int MAX_BATCH_SIZE = 100;
+
     @Mock
     private IBookingService bookingService;
 
     @Mock
     private ICheckAvailabilityService availabilityCheckService;
 
-    @InjectMocks
-    private BookingController bookingController;
+    @Mock
+    private IAvailabilityFeed availabilityFeed;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
     private MockMvc mockMvc;
-    private ObjectMapper objectMapper;
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(bookingController).build();
-        objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new BookingController(bookingService, availabilityCheckService, objectMapper, availabilityFeed, MAX_BATCH_SIZE))
+                .setControllerAdvice(new CustomExceptionHandler())
+                .build();
     }
 
     @Test
@@ -98,6 +129,90 @@ class BookingControllerTest {
         verify(availabilityCheckService).checkAvailabilityByDateTime(testDateTime, 2, 1);
     }
 
+    @Test
+    void testAvailabilityCheck_WithDateTime_AtMostTwoQueries() throws Exception {
+        // Given the real availability check, behind the cache as in production, over repository mocks
+        WorkerRepository workerRepository = mock(WorkerRepository.class);
+        BookingDetailRepository bookingDetailRepository = mock(BookingDetailRepository.class);
+        WorkerScheduleRepository workerScheduleRepository = mock(WorkerScheduleRepository.class);
+        WorkerScheduleIndex workerScheduleIndex = new WorkerScheduleIndex(workerScheduleRepository, 90);
+        CheckAvailabilityService checkAvailabilityService = new CheckAvailabilityService(workerRepository, bookingDetailRepository,
+                workerScheduleRepository, workerScheduleIndex, new SlotAvailabilityView(workerRepository, workerScheduleIndex, 90),
+                new SimpleMeterRegistry());
+        CachingCheckAvailabilityService cachingCheckAvailabilityService = new CachingCheckAvailabilityService(
+                checkAvailabilityService, new SimpleMeterRegistry(), 100, 60);
+        MockMvc availabilityMockMvc = MockMvcBuilders
+                .standaloneSetup(new BookingController(bookingService, cachingCheckAvailabilityService, objectMapper, availabilityFeed, MAX_BATCH_SIZE))
+                .build();
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(createTestWorker(1L, "John Doe"), createTestWorker(2L, "Jane Smith")));
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+
+        // When & Then the first request reads the workers and their bookings, and the second reads nothing
+        for (int maxQueries : new int[]{2, 0}) {
+            assertQueriesAtMost(maxQueries, () -> availabilityMockMvc.perform(get("/bookings/availability")
+                                    .param("date", "2024-01-15")
+                                    .param("startTime", "2024-01-15T10:00:00")
+                                    .param("duration", "2")
+                                    .param("workersRequired", "2"))
+                            .andExpect(status().isOk())
+                            .andExpect(jsonPath("$.length()").value(2)),
+                    workerRepository, bookingDetailRepository, workerScheduleRepository);
+        }
+    }
+
+    @Test
+    void testAvailabilityFeed_SubscribesForDay() throws Exception {
+        // Given
+        LocalDate testDate = LocalDate.of(2024, 1, 15);
+        when(availabilityFeed.subscribe(testDate)).thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/bookings/availability/feed")
+                        .param("date", "2024-01-15"))
+                .andExpect(request().asyncStarted());
+
+        verify(availabilityFeed).subscribe(testDate);
+    }
+
+    @Test
+    void testAvailabilityFeed_InvalidDate_BadRequest() throws Exception {
+        mockMvc.perform(get("/bookings/availability/feed")
+                        .param("date", "15-01-2024"))
+                .andExpect(status().isBadRequest());
+
+        verify(availabilityFeed, never()).subscribe(any());
+    }
+
+    @Test
+    void testAvailabilityFeed_StreamsWorkerDayDeltas() throws Exception {
+        // Given a real feed; worker 1 is now booked 10:00-12:00, so 09:30-12:30 is busy
+        IWorkerScheduleIndex workerScheduleIndex = mock(IWorkerScheduleIndex.class);
+        when(workerScheduleIndex.busySlots(1L, LocalDate.of(2024, 1, 15))).thenReturn(0b111111L << 19);
+        AvailabilityFeed feed = new AvailabilityFeed(workerScheduleIndex, objectMapper, 60000, 10, 32, 1);
+        MockMvc feedMockMvc = MockMvcBuilders
+                .standaloneSetup(new BookingController(bookingService, availabilityCheckService, objectMapper, feed, MAX_BATCH_SIZE))
+                .build();
+        MvcResult result = feedMockMvc.perform(get("/bookings/availability/feed"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 15, 10, 0);
+        feed.onBookingEvent(new BookingEvent(7L, 7L, BookingEvent.Type.BOOKING_CREATED, 10L, null, startTime,
+                startTime.plusHours(2), List.of(1L), startTime.minusDays(1)));
+
+        // Then the delta is written on a feed writer thread
+        String body = awaitBody(result, "\"change\":\"BUSY\"");
+        feed.shutdown();
+        assertTrue(body.contains("id:7\n"));
+        assertTrue(body.contains("event:availability\n"));
+        assertTrue(body.contains("\"workerId\":1"));
+        assertTrue(body.contains("\"change\":\"BUSY\""));
+        assertEquals(1, feed.subscriberCount());
+    }
+
     @Test
     void testAvailabilityCheck_InvalidWorkersRequired_BadRequest() throws Exception {
         mockMvc.perform(get("/bookings/availability")
@@ -116,6 +231,67 @@ class BookingControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void testAvailabilityRange_Success() throws Exception {
+        // Given
+        LocalDate from = LocalDate.of(2024, 1, 15);
+        LocalDate to = LocalDate.of(2024, 1, 16);
+        Map<LocalDate, List<Worker>> availability = new TreeMap<>(Map.of(
+                from, List.of(createTestWorker(1L, "John Doe")),
+                to, List.of(createTestWorker(2L, "Jane Smith"))));
+        when(availabilityCheckService.checkAvailabilityForRange(from, to, 1)).thenReturn(availability);
+
+        // When & Then
+        mockMvc.perform(get("/bookings/availability/range")
+                        .param("from", "2024-01-15")
+                        .param("to", "2024-01-16"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['2024-01-15'][0].name").value("John Doe"))
+                .andExpect(jsonPath("$['2024-01-16'][0].name").value("Jane Smith"));
+
+        verify(availabilityCheckService).checkAvailabilityForRange(from, to, 1);
+    }
+
+    @Test
+    void testAvailabilityRange_TooLong_BadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/bookings/availability/range")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-02-01"))
+                .andExpect(status().isBadRequest());
+
+        verify(availabilityCheckService, never()).checkAvailabilityForRange(any(), any(), anyInt());
+    }
+
+    @Test
+    void testAvailabilityCalendar_Success() throws Exception {
+        // Given
+        LocalDate testDate = LocalDate.of(2024, 1, 15);
+        AvailabilityCalendar calendar = new AvailabilityCalendar(testDate, List.of(
+                new AvailabilityCalendar.CalendarEntry(2, 1, List.of(testDate.atTime(8, 0), testDate.atTime(8, 30)))));
+        when(availabilityCheckService.getAvailabilityCalendar(testDate)).thenReturn(calendar);
+
+        // When & Then
+        mockMvc.perform(get("/bookings/availability/calendar")
+                        .param("date", "2024-01-15"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[0].duration").value(2))
+                .andExpect(jsonPath("$.entries[0].workersRequired").value(1))
+                .andExpect(jsonPath("$.entries[0].startTimes.length()").value(2));
+
+        verify(availabilityCheckService).getAvailabilityCalendar(testDate);
+    }
+
+    @Test
+    void testAvailabilityCalendar_InvalidDate_BadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/bookings/availability/calendar")
+                        .param("date", "15-01-2024"))
+                .andExpect(status().isBadRequest());
+
+        verify(availabilityCheckService, never()).getAvailabilityCalendar(any());
+    }
+
     @Test
     void testCreateBooking_Success() throws Exception {
         // Given
@@ -167,6 +343,46 @@ class BookingControllerTest {
         verify(bookingService, never()).createBooking(any(Booking.class));
     }
 
+    @Test
+    void testCreateBookings_ReturnsResultPerBooking() throws Exception {
+        // Given
+        List<Booking> bookings = List.of(createTestBooking(), createTestBooking());
+        Booking savedBooking = createTestBooking();
+        savedBooking.setId(1L);
+
+        when(bookingService.createBookings(anyList())).thenReturn(List.of(
+                BookingResult.created(0, savedBooking),
+                BookingResult.rejected(1, "Not enough workers available from the same vehicle for the provided time")));
+
+        // When & Then
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookings)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[0].booking.id").value(1L))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].index").value(1));
+
+        verify(bookingService).createBookings(anyList());
+    }
+
+    @Test
+    void testCreateBookings_TooManyBookings_BadRequest() throws Exception {
+        // Given
+        List<Booking> bookings = Collections.nCopies(MAX_BATCH_SIZE + 1, createTestBooking());
+
+        // When & Then
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bookings)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Batch of 101 bookings is over the limit of 100 per request; split it into smaller batches"));
+
+        verify(bookingService, never()).createBookings(anyList());
+    }
+
     @Test
     void testUpdateBooking_Success() throws Exception {
         // Given
@@ -222,49 +438,115 @@ class BookingControllerTest {
     }
 
     @Test
-    void testGetAllBookingDetails_Success() throws Exception {
+    void testGetBookingDetails_Success() throws Exception {
         // Given
-        List<BookingDetail> bookingDetails = Arrays.asList(
+        List<BookingDetailView> bookingDetails = Arrays.asList(
                 createTestBookingDetail(1L),
                 createTestBookingDetail(2L)
         );
 
-        when(bookingService.getAllBookingDetails()).thenReturn(bookingDetails);
+        when(bookingService.getBookingDetails(isNull(), eq(100), isNull(), isNull(), isNull())).thenReturn(bookingDetails);
 
         // When & Then
         mockMvc.perform(get("/bookings"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2));
 
-        verify(bookingService).getAllBookingDetails();
+        verify(bookingService).getBookingDetails(isNull(), eq(100), isNull(), isNull(), isNull());
     }
 
     @Test
-    void testGetAllBookingDetails_EmptyList() throws Exception {
+    void testGetBookingDetails_EmptyList() throws Exception {
         // Given
-        when(bookingService.getAllBookingDetails()).thenReturn(Collections.emptyList());
+        when(bookingService.getBookingDetails(isNull(), eq(100), isNull(), isNull(), isNull())).thenReturn(Collections.emptyList());
 
         // When & Then
         mockMvc.perform(get("/bookings"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(0));
 
-        verify(bookingService).getAllBookingDetails();
+        verify(bookingService).getBookingDetails(isNull(), eq(100), isNull(), isNull(), isNull());
     }
 
     @Test
-    void testGetAllBookingDetails_NullResult() throws Exception {
+    void testGetBookingDetails_WithKeysetAndFilters() throws Exception {
         // Given
-        when(bookingService.getAllBookingDetails()).thenReturn(null);
+        when(bookingService.getBookingDetails(anyLong(), anyInt(), any(), any(), anyLong()))
+                .thenReturn(List.of(createTestBookingDetail(51L)));
 
         // When & Then
-        mockMvc.perform(get("/bookings"))
-                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/bookings")
+                        .param("afterId", "50")
+                        .param("limit", "10")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00")
+                        .param("workerId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(51L))
+                .andExpect(jsonPath("$[0].workerName").value("Test Worker"));
+
+        verify(bookingService).getBookingDetails(50L, 10, LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 2, 1, 0, 0), 1L);
+    }
+
+    @Test
+    void testGetBookingDetails_InvalidLimit_BadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/bookings")
+                        .param("limit", "5000"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).getBookingDetails(any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void testGetBookingDetails_InvalidDateFormat_BadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/bookings")
+                        .param("from", "2024/01/01"))
+                .andExpect(status().isBadRequest());
 
-        verify(bookingService).getAllBookingDetails();
+        verify(bookingService, never()).getBookingDetails(any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void testStreamBookingDetails_WritesOneLinePerBooking() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<BookingDetailView> consumer = invocation.getArgument(3);
+            consumer.accept(createTestBookingDetail(1L));
+            consumer.accept(createTestBookingDetail(2L));
+            return null;
+        }).when(bookingService).streamBookingDetails(isNull(), isNull(), eq(1L), any());
+
+        // When
+        MvcResult mvcResult = mockMvc.perform(get("/bookings/stream")
+                        .param("workerId", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readTree(lines[0]).get("id").asLong());
+        assertEquals(2L, objectMapper.readTree(lines[1]).get("id").asLong());
     }
 
     // Helper methods
+    private static String awaitBody(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String body = result.getResponse().getContentAsString();
+        while (!body.contains(expected) && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+            body = result.getResponse().getContentAsString();
+        }
+        return body;
+    }
+
     private Worker createTestWorker(Long id, String name) {
         Vehicle vehicle = Vehicle.builder()
                 .id(1L)
@@ -275,7 +557,7 @@ class BookingControllerTest {
                 .id(id)
                 .name(name)
                 .available(true)
-                .workingHours("08:00-22:00")
+                .workingHours(WorkingHours.parse("08:00-22:00"))
                 .workingOnFridays(false)
                 .vehicle(vehicle)
                 .build();
@@ -290,11 +572,8 @@ class BookingControllerTest {
                 .build();
     }
 
-    private BookingDetail createTestBookingDetail(Long id) {
-        return BookingDetail.builder()
-                .id(id)
-                .booking(createTestBooking())
-                .worker(createTestWorker(1L, "Test Worker"))
-                .build();
+    private BookingDetailView createTestBookingDetail(Long id) {
+        return new BookingDetailView(id, 1L, LocalDateTime.of(2024, 1, 15, 10, 0), LocalDateTime.of(2024, 1, 15, 12, 0),
+                2, 1, 1L, "Test Worker");
     }
 } 
\ No newline at end of file
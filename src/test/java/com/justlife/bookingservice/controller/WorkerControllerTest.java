@@ -3,6 +3,7 @@ package com.justlife.bookingservice.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.justlife.bookingservice.model.Vehicle;
 import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.WorkingHours;
 import com.justlife.bookingservice.service.IWorkerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -205,7 +206,7 @@ class WorkerControllerTest {
                 .id(id)
                 .name(name)
                 .available(true)
-                .workingHours("08:00-22:00")
+                .workingHours(WorkingHours.parse("08:00-22:00"))
                 .workingOnFridays(false)
                 .vehicle(vehicle)
                 .build();
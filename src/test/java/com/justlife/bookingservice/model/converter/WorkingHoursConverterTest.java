@@ -0,0 +1,41 @@
+package com.justlife.bookingservice.model.converter;
+
+import com.justlife.bookingservice.model.WorkingHours;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkingHoursConverterTest {
+
+    private final WorkingHoursConverter converter = new WorkingHoursConverter();
+
+    @Test
+    void testConvertToEntityAttribute_ParsesWorkingHours() {
+        assertEquals(new WorkingHours(9 * 60, 17 * 60 + 30), converter.convertToEntityAttribute("09:00-17:30"));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void testConvertToEntityAttribute_LegacyValuesAreNeverAvailable() {
+        for (String value : List.of("22:00-06:00", "8:00-22:00", "08:00", "")) {
+            WorkingHours workingHours = converter.convertToEntityAttribute(value);
+            assertEquals(value, workingHours.unreadable());
+            assertFalse(workingHours.contains(12 * 60, 13 * 60), value);
+            assertFalse(workingHours.contains(0, 0), value);
+        }
+    }
+
+    @Test
+    void testConvertToDatabaseColumn_LegacyValuesAreWrittenBackUnchanged() {
+        assertEquals("22:00-06:00", converter.convertToDatabaseColumn(converter.convertToEntityAttribute("22:00-06:00")));
+        assertEquals("08:00", converter.convertToDatabaseColumn(converter.convertToEntityAttribute("08:00")));
+    }
+
+    @Test
+    void testConvertToDatabaseColumn_WritesTheColumnFormat() {
+        assertEquals("08:00-22:00", converter.convertToDatabaseColumn(WorkingHours.DEFAULT));
+        assertNull(converter.convertToDatabaseColumn(null));
+    }
+}
@@ -0,0 +1,134 @@
+package com.justlife.bookingservice.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class AvailabilityIndexPlanTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @BeforeAll
+    static void migrate() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .schemas("bookingschema")
+                .load()
+                .migrate();
+
+        // a year of bookings for a mid-sized fleet, about 100 per worker, so the planner weighs the indexes
+        // against sequential scans on tables of a realistic size
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("insert into vehicle (name) select 'Vehicle ' || v from generate_series(1, 200) v");
+            statement.execute("insert into worker (name, available, working_hours, working_on_fridays, vehicle_id) "
+                    + "select 'Worker ' || w, true, '08:00-22:00', false, 1 + w % 200 from generate_series(1, 2000) w");
+            statement.execute("insert into booking (id, start_time, end_time, duration, required_workers) "
+                    + "select b, timestamp '2024-01-01 08:00' + (b % 365) * interval '1 day' + (b % 7) * interval '2 hour', "
+                    + "timestamp '2024-01-01 10:00' + (b % 365) * interval '1 day' + (b % 7) * interval '2 hour', 2, 1 "
+                    + "from generate_series(1, 200000) b");
+            statement.execute("insert into booking_detail (id, booking_id, worker_id) "
+                    + "select b, b, 1 + b % 2000 from generate_series(1, 200000) b");
+            statement.execute("insert into worker_schedule (id, worker_id, booking_id, start_time, end_time) "
+                    + "select bd.id, bd.worker_id, b.id, b.start_time, b.end_time "
+                    + "from booking_detail bd join booking b on b.id = bd.booking_id");
+            // also sets the visibility map, which index-only scans rely on
+            statement.execute("vacuum analyze");
+        }
+    }
+
+    @Test
+    void testBookingIntervalsQuery_UsesAvailabilityIndexes() throws SQLException {
+        // When
+        String plan = explain("select bd.worker_id, b.id, b.start_time, b.end_time "
+                + "from booking_detail bd join booking b on b.id = bd.booking_id "
+                + "where bd.worker_id in (1, 2, 3) "
+                + "and b.start_time >= timestamp '2024-03-01 00:00' and b.start_time < timestamp '2024-03-02 00:00'");
+
+        // Then
+        assertTrue(plan.contains("idx_booking_detail_worker_booking"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    @Test
+    void testWorkerBookingsLookup_UsesWorkerIndex() throws SQLException {
+        // When
+        String plan = explain("select bd.booking_id from booking_detail bd where bd.worker_id = 42");
+
+        // Then
+        assertTrue(plan.contains("Index Only Scan using idx_booking_detail_worker_booking"), plan);
+    }
+
+    @Test
+    void testWorkerScheduleQuery_IsIndexOnlyScan() throws SQLException {
+        // When
+        String plan = explain("select ws.worker_id, ws.booking_id, ws.start_time, ws.end_time from worker_schedule ws "
+                + "where ws.worker_id in (1, 2, 3) "
+                + "and ws.start_time >= timestamp '2024-03-01 00:00' and ws.start_time < timestamp '2024-03-02 00:00'");
+
+        // Then
+        assertTrue(plan.contains("Index Only Scan using idx_worker_schedule_worker_start"), plan);
+        assertFalse(plan.contains("Join"), plan);
+    }
+
+    @Test
+    void testMigrate_DatabaseBaselinedWithoutWorkerVersion_AddsIt() throws Exception {
+        // Given a schema as ddl-auto created it before workers were versioned
+        String baseline = new String(AvailabilityIndexPlanTest.class.getResourceAsStream("/db/migration/V1__baseline.sql")
+                .readAllBytes(), StandardCharsets.UTF_8);
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("create schema legacyschema");
+            statement.execute("set search_path to legacyschema");
+            statement.execute(baseline.replaceAll("(?m)^\\s*version .*$", ""));
+        }
+
+        // When
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .schemas("legacyschema")
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+
+        // Then
+        try (Connection connection = connect(); Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("select column_default from information_schema.columns "
+                     + "where table_schema = 'legacyschema' and table_name = 'worker' and column_name = 'version'")) {
+            assertTrue(rows.next());
+            assertEquals("0", rows.getString(1));
+        }
+    }
+
+    private static String explain(String query) throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rows = statement.executeQuery("explain " + query)) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        Connection connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("set search_path to bookingschema");
+        }
+        return connection;
+    }
+}
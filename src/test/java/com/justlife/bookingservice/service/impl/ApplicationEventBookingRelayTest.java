@@ -0,0 +1,169 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.model.BookingOutboxEntry;
+import com.justlife.bookingservice.repository.BookingOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ApplicationEventBookingRelayTest {
+
+    @Mock
+    private BookingOutboxRepository bookingOutboxRepository;
+
+    private final List<Object> delivered = new CopyOnWriteArrayList<>();
+
+    private final ApplicationEventPublisher eventPublisher = delivered::add;
+
+    private ApplicationEventBookingRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new ApplicationEventBookingRelay(bookingOutboxRepository, eventPublisher, 2, 1000);
+    }
+
+    @Test
+    void testRelayPending_StartsAtTheNewestEntryAndKeepsThePublishOrder() {
+        // Given entries 1 to 4 published before the node started, and three published since
+        when(bookingOutboxRepository.findMaxPublishSeq()).thenReturn(4L);
+        when(bookingOutboxRepository.findByPublishSeqGreaterThanOrderByPublishSeqAsc(eq(4L), any(Limit.class)))
+                .thenReturn(List.of(createEntry(60L, 5L), createEntry(12L, 6L)));
+        when(bookingOutboxRepository.findByPublishSeqGreaterThanOrderByPublishSeqAsc(eq(6L), any(Limit.class)))
+                .thenReturn(List.of(createEntry(61L, 7L)));
+
+        // When
+        int relayed = relay.relayPending();
+
+        // Then
+        assertEquals(3, relayed);
+        assertEquals(List.of(5L, 6L, 7L), delivered.stream().map(event -> ((BookingEvent) event).publishSeq()).toList());
+    }
+
+    @Test
+    void testRelayPending_ResumesAfterTheLastRelayedEntry() {
+        // Given
+        when(bookingOutboxRepository.findMaxPublishSeq()).thenReturn(null);
+        when(bookingOutboxRepository.findByPublishSeqGreaterThanOrderByPublishSeqAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(createEntry(1L, 1L)));
+        relay.relayPending();
+        when(bookingOutboxRepository.findByPublishSeqGreaterThanOrderByPublishSeqAsc(eq(1L), any(Limit.class)))
+                .thenReturn(List.of(createEntry(2L, 2L)));
+
+        // When
+        int relayed = relay.relayPending();
+
+        // Then
+        assertEquals(1, relayed);
+        assertEquals(2, delivered.size());
+        verify(bookingOutboxRepository, times(1)).findMaxPublishSeq();
+    }
+
+    @Test
+    void testRelayPending_EveryNodeRelaysEveryEvent() {
+        // Given a second node reading the same table
+        ApplicationEventBookingRelay otherNode = new ApplicationEventBookingRelay(bookingOutboxRepository, eventPublisher, 2, 1000);
+        when(bookingOutboxRepository.findMaxPublishSeq()).thenReturn(0L);
+        when(bookingOutboxRepository.findByPublishSeqGreaterThanOrderByPublishSeqAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(createEntry(1L, 1L)));
+
+        // When
+        relay.relayPending();
+        otherNode.relayPending();
+
+        // Then
+        assertEquals(2, delivered.size());
+    }
+
+    @Test
+    void testRelayPending_FailingListenerDoesNotStopTheRest() {
+        // Given
+        ApplicationEventPublisher failingFirst = event -> {
+            delivered.add(event);
+            if (delivered.size() == 1) {
+                throw new IllegalStateException("Listener failed");
+            }
+        };
+        relay = new ApplicationEventBookingRelay(bookingOutboxRepository, failingFirst, 2, 1000);
+        when(bookingOutboxRepository.findMaxPublishSeq()).thenReturn(0L);
+        when(bookingOutboxRepository.findByPublishSeqGreaterThanOrderByPublishSeqAsc(eq(0L), any(Limit.class)))
+                .thenReturn(List.of(createEntry(1L, 1L)));
+        when(bookingOutboxRepository.findByPublishSeqGreaterThanOrderByPublishSeqAsc(eq(1L), any(Limit.class)))
+                .thenReturn(List.of(createEntry(2L, 2L)));
+
+        // When
+        relay.relayPending();
+        relay.relayPending();
+
+        // Then
+        assertEquals(2, delivered.size());
+    }
+
+    @Test
+    void testShutdown_WaitsForTheEventBeingRelayed() throws InterruptedException {
+        // Given a listener still running when the node stops
+        CountDownLatch listenerStarted = new CountDownLatch(1);
+        CountDownLatch listenerFinished = new CountDownLatch(1);
+        relay = new ApplicationEventBookingRelay(bookingOutboxRepository, event -> {
+            listenerStarted.countDown();
+            sleep(200);
+            listenerFinished.countDown();
+        }, 2, 1000);
+        when(bookingOutboxRepository.findMaxPublishSeq()).thenReturn(0L);
+        when(bookingOutboxRepository.findByPublishSeqGreaterThanOrderByPublishSeqAsc(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(createEntry(1L, 1L)), List.of());
+        relay.start();
+        assertTrue(listenerStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        assertTimeoutPreemptively(Duration.ofSeconds(5), relay::shutdown);
+
+        // Then
+        assertEquals(0, listenerFinished.getCount());
+    }
+
+    @Test
+    void testConstructor_NonPositiveBatchSize_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ApplicationEventBookingRelay(bookingOutboxRepository, eventPublisher, 0, 1000));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private BookingOutboxEntry createEntry(Long id, Long publishSeq) {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 15, 10, 0);
+        return BookingOutboxEntry.builder()
+                .id(id)
+                .publishSeq(publishSeq)
+                .eventType(BookingEvent.Type.BOOKING_CREATED)
+                .bookingId(10L)
+                .startTime(startTime)
+                .endTime(startTime.plusHours(2))
+                .workerIds(List.of(1L))
+                .createdAt(startTime)
+                .publishedAt(startTime)
+                .build();
+    }
+}
@@ -0,0 +1,229 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.service.IWorkerScheduleIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityFeedTest {
+
+    @Mock
+    private IWorkerScheduleIndex workerScheduleIndex;
+
+    private AvailabilityFeed availabilityFeed;
+
+    private final CountDownLatch emitterReleased = new CountDownLatch(1);
+
+    private LocalDate testDate;
+    private LocalDateTime testDateTime;
+
+    @BeforeEach
+    void setUp() {
+        availabilityFeed = new AvailabilityFeed(workerScheduleIndex, new ObjectMapper().registerModule(new JavaTimeModule()), 60000, 1, 2, 2);
+        testDate = LocalDate.of(2024, 1, 15);
+        testDateTime = testDate.atTime(10, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emitterReleased.countDown();
+        availabilityFeed.shutdown();
+    }
+
+    @Test
+    void testOnBookingEvent_NoSubscribersDoesNothing() {
+        // When
+        availabilityFeed.onBookingEvent(createdEvent(List.of(1L, 2L)));
+
+        // Then
+        verifyNoInteractions(workerScheduleIndex);
+    }
+
+    @Test
+    void testOnBookingEvent_OnlyReadsDaysSomeoneSubscribedTo() {
+        // Given a subscriber for another day
+        availabilityFeed.subscribe(testDate.plusDays(1));
+
+        // When
+        availabilityFeed.onBookingEvent(createdEvent(List.of(1L, 2L)));
+
+        // Then
+        verifyNoInteractions(workerScheduleIndex);
+    }
+
+    @Test
+    void testOnBookingEvent_RescheduleSendsFreeAndBusyDays() {
+        // Given
+        availabilityFeed.subscribe(null);
+
+        // When the booking moves to the next day
+        availabilityFeed.onBookingEvent(new BookingEvent(7L, 7L, BookingEvent.Type.BOOKING_UPDATED, 10L, testDateTime,
+                testDateTime.plusDays(1), testDateTime.plusDays(1).plusHours(2), List.of(1L), testDateTime));
+
+        // Then
+        verify(workerScheduleIndex, timeout(5000)).busySlots(1L, testDate);
+        verify(workerScheduleIndex, timeout(5000)).busySlots(1L, testDate.plusDays(1));
+    }
+
+    @Test
+    void testOnBookingEvent_LoadsTheDayOncePerEvent() {
+        // Given
+        availabilityFeed.subscribe(null);
+
+        // When
+        availabilityFeed.onBookingEvent(createdEvent(List.of(1L, 2L, 3L)));
+
+        // Then
+        verify(workerScheduleIndex, timeout(5000)).busySlots(3L, testDate);
+        verify(workerScheduleIndex, times(1)).preload(testDate, List.of(1L, 2L, 3L));
+        verify(workerScheduleIndex, never()).preload(any(LocalDate.class), any(LocalDate.class), anyCollection());
+    }
+
+    @Test
+    void testOnBookingEvent_ReadsTheDayBackFromTheDatabaseBeforeBuildingDeltas() {
+        // Given
+        availabilityFeed.subscribe(null);
+
+        // When an event another node committed arrives
+        availabilityFeed.onBookingEvent(createdEvent(List.of(1L, 2L)));
+
+        // Then this node's copy of the day is not trusted
+        verify(workerScheduleIndex, timeout(5000)).busySlots(2L, testDate);
+        InOrder inOrder = inOrder(workerScheduleIndex);
+        inOrder.verify(workerScheduleIndex).evict(testDate, List.of(1L, 2L));
+        inOrder.verify(workerScheduleIndex).preload(testDate, List.of(1L, 2L));
+        inOrder.verify(workerScheduleIndex).busySlots(1L, testDate);
+    }
+
+    @Test
+    void testOnBookingEvent_EventIdIsThePublishSequence() throws InterruptedException {
+        // Given
+        BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+        availabilityFeed.subscribe(new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) {
+                items.forEach(item -> sent.add(String.valueOf(item.getData())));
+            }
+        }, null);
+
+        // When an event whose outbox id is unrelated to its position in the stream arrives
+        availabilityFeed.onBookingEvent(new BookingEvent(42L, 7L, BookingEvent.Type.BOOKING_CREATED, 10L, null,
+                testDateTime, testDateTime.plusHours(2), List.of(1L), testDateTime));
+
+        // Then
+        String first = sent.poll(5, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertTrue(first.startsWith("id:7\n"), first);
+    }
+
+    @Test
+    void testOnBookingEvent_StalledSubscriberIsDroppedWithoutHoldingUpTheOthers() throws InterruptedException {
+        // Given a subscriber whose connection stalls on the first write, and one that keeps up
+        availabilityFeed.shutdown();
+        availabilityFeed = new AvailabilityFeed(workerScheduleIndex, new ObjectMapper().registerModule(new JavaTimeModule()), 60000, 10, 2, 2);
+        CountDownLatch writing = new CountDownLatch(1);
+        AtomicInteger stalledWrites = new AtomicInteger();
+        availabilityFeed.subscribe(new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) {
+                stalledWrites.incrementAndGet();
+                writing.countDown();
+                try {
+                    emitterReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, null);
+        Semaphore received = new Semaphore(0);
+        availabilityFeed.subscribe(new SseEmitter() {
+            @Override
+            public void send(Set<DataWithMediaType> items) {
+                received.release();
+            }
+        }, null);
+
+        // When the stalled subscriber falls further behind than its buffer
+        availabilityFeed.onBookingEvent(createdEvent(List.of(1L)));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        for (long workerId = 2; workerId <= 4; workerId++) {
+            assertTrue(received.tryAcquire(5, TimeUnit.SECONDS));
+            availabilityFeed.onBookingEvent(createdEvent(List.of(workerId)));
+        }
+
+        // Then the other subscriber still gets every delta, and the stalled one is dropped
+        assertTrue(received.tryAcquire(5, TimeUnit.SECONDS));
+        awaitSubscriberCount(1);
+        assertEquals(1, availabilityFeed.subscriberCount());
+        emitterReleased.countDown();
+        availabilityFeed.shutdown();
+        assertEquals(1, stalledWrites.get());
+    }
+
+    @Test
+    void testSendHeartbeats_DropsClosedSubscribers() {
+        // Given
+        availabilityFeed.subscribe(null);
+        SseEmitter closed = availabilityFeed.subscribe(testDate);
+        closed.complete();
+
+        // When
+        availabilityFeed.sendHeartbeats();
+
+        // Then
+        awaitSubscriberCount(1);
+        assertEquals(1, availabilityFeed.subscriberCount());
+    }
+
+    @Test
+    void testBindTo_PublishesSubscriberGauge() {
+        // Given
+        MeterRegistry registry = new SimpleMeterRegistry();
+        availabilityFeed.bindTo(registry);
+
+        // When
+        availabilityFeed.subscribe(null);
+        availabilityFeed.subscribe(testDate);
+
+        // Then
+        assertEquals(2, registry.get("booking.availability.feed.subscribers").gauge().value());
+    }
+
+    private void awaitSubscriberCount(int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (availabilityFeed.subscriberCount() != count && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private BookingEvent createdEvent(List<Long> workerIds) {
+        return new BookingEvent(7L, 7L, BookingEvent.Type.BOOKING_CREATED, 10L, null, testDateTime,
+                testDateTime.plusHours(2), workerIds, testDateTime);
+    }
+}
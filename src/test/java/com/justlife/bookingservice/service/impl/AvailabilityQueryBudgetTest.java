@@ -0,0 +1,82 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.config.SqlStatementCounter;
+import com.justlife.bookingservice.model.Vehicle;
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.WorkingHours;
+import com.justlife.bookingservice.repository.VehicleRepository;
+import com.justlife.bookingservice.repository.WorkerRepository;
+import com.justlife.bookingservice.service.ICheckAvailabilityService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.justlife.bookingservice.config.QueryBudget.assertStatementsAtMost;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements the availability check really runs, through Hibernate's statement inspector,
+ * so a lazy association read per worker fails here even where the mocked repositories would not notice.
+ */
+@SpringBootTest(properties = "booking.scheduling.enabled=false")
+@Testcontainers(disabledWithoutDocker = true)
+class AvailabilityQueryBudgetTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private ICheckAvailabilityService checkAvailabilityService;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private WorkerRepository workerRepository;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":"
+                + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName() + "?schema=bookingschema");
+    }
+
+    @Test
+    void testAvailabilityCheck_AtMostTwoStatements() throws Exception {
+        // Given ten vehicles with two workers each, and days nothing has been loaded for yet
+        for (int v = 1; v <= 10; v++) {
+            Vehicle vehicle = vehicleRepository.save(Vehicle.builder().name("Vehicle " + v).build());
+            for (int w = 1; w <= 2; w++) {
+                workerRepository.save(Worker.builder()
+                        .name("Worker " + v + "-" + w)
+                        .available(true)
+                        .workingHours(WorkingHours.parse("08:00-22:00"))
+                        .workingOnFridays(true)
+                        .vehicle(vehicle)
+                        .build());
+            }
+        }
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 15, 10, 0);
+
+        // When & Then: one page of workers and one bulk load of their bookings, and no per-worker queries
+        List<Worker> crew = assertStatementsAtMost(2, sqlStatementCounter,
+                () -> checkAvailabilityService.checkAvailabilityByDateTime(startTime, 2, 2));
+        assertFalse(crew.isEmpty());
+        assertStatementsAtMost(2, sqlStatementCounter,
+                () -> checkAvailabilityService.checkAvailabilityForDate(LocalDate.of(2024, 1, 16), 2));
+    }
+}
@@ -0,0 +1,126 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.model.Booking;
+import com.justlife.bookingservice.model.Vehicle;
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.WorkingHours;
+import com.justlife.bookingservice.repository.BookingRepository;
+import com.justlife.bookingservice.repository.VehicleRepository;
+import com.justlife.bookingservice.repository.WorkerRepository;
+import com.justlife.bookingservice.service.IBookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Books the only worker from two transactions at once, with the in-process worker locks off so that
+ * only the database keeps them apart, as between two nodes.
+ */
+@SpringBootTest(properties = {"booking.scheduling.enabled=false", "booking.worker-locks.enabled=false"})
+@Testcontainers(disabledWithoutDocker = true)
+class BookingAdmissionConcurrencyTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private IBookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private WorkerRepository workerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":"
+                + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName() + "?schema=bookingschema");
+    }
+
+    @Test
+    void testCreateBooking_SameWorkerFromTwoTransactions_OnlyOneCommits() throws Exception {
+        // Given the only worker, booked by a transaction that has not committed yet
+        Vehicle vehicle = vehicleRepository.save(Vehicle.builder().name("Vehicle 1").build());
+        workerRepository.save(Worker.builder()
+                .name("Worker 1")
+                .available(true)
+                .workingHours(WorkingHours.parse("08:00-22:00"))
+                .workingOnFridays(true)
+                .vehicle(vehicle)
+                .build());
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 15, 10, 0);
+        CountDownLatch firstBooked = new CountDownLatch(1);
+        CountDownLatch firstReleased = new CountDownLatch(1);
+        CompletableFuture<Booking> first = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            Booking booking = bookingService.createBooking(createBooking(startTime));
+            firstBooked.countDown();
+            await(firstReleased);
+            return booking;
+        }));
+        assertTrue(firstBooked.await(10, TimeUnit.SECONDS));
+
+        // When a second transaction books the same worker and waits on its row
+        CompletableFuture<Booking> second = CompletableFuture.supplyAsync(() -> bookingService.createBooking(createBooking(startTime)));
+        awaitLockWait();
+        firstReleased.countDown();
+
+        // Then
+        assertNotNull(first.get(10, TimeUnit.SECONDS).getId());
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> second.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(1, bookingRepository.count());
+    }
+
+    private void awaitLockWait() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (jdbcTemplate.queryForObject("select count(*) from pg_stat_activity where wait_event_type = 'Lock'", Integer.class) == 0) {
+            assertTrue(System.nanoTime() < deadline, "The second transaction never waited on the worker row");
+            Thread.sleep(20);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Booking createBooking(LocalDateTime startTime) {
+        return Booking.builder()
+                .startTime(startTime)
+                .duration(2)
+                .requiredWorkers(1)
+                .build();
+    }
+}
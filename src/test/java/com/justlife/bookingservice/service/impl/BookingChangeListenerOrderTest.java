@@ -0,0 +1,230 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.dto.AvailabilityCalendar;
+import com.justlife.bookingservice.event.BookingChangedEvent;
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.model.Vehicle;
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.WorkingHours;
+import com.justlife.bookingservice.model.projection.BookingInterval;
+import com.justlife.bookingservice.repository.BookingDetailRepository;
+import com.justlife.bookingservice.repository.WorkerRepository;
+import com.justlife.bookingservice.repository.WorkerScheduleRepository;
+import com.justlife.bookingservice.service.IWorkerScheduleIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Commits booking changes through Spring's after-commit listeners, and relays them as outbox events, so
+ * the schedule index, the slot availability view and the availability cache see them in the order they
+ * are declared to run in.
+ */
+class BookingChangeListenerOrderTest {
+
+    private static final LocalDate TEST_DATE = LocalDate.of(2024, 1, 15);
+
+    private static final LocalDateTime TEN_AM = TEST_DATE.atTime(10, 0);
+
+    private AnnotationConfigApplicationContext context;
+
+    private CachingCheckAvailabilityService availabilityService;
+
+    private SlotAvailabilityView slotAvailabilityView;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext(ListenerConfig.class);
+        availabilityService = context.getBean(CachingCheckAvailabilityService.class);
+        slotAvailabilityView = context.getBean(SlotAvailabilityView.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void testRescheduledBooking_FreesTheOldSlotAndTakesTheNewOne() {
+        // Given the only worker is booked 10:00-12:00 and both days are built and cached
+        LocalDate nextDay = TEST_DATE.plusDays(1);
+        assertFalse(startTimes(availabilityService.getAvailabilityCalendar(TEST_DATE)).contains(TEN_AM));
+        assertFalse(viewHasWorkerFree(TEN_AM));
+        assertTrue(startTimes(availabilityService.getAvailabilityCalendar(nextDay)).contains(TEN_AM.plusDays(1)));
+
+        // When the booking moves to 10:00 the next day
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> context.publishEvent(
+                new BookingChangedEvent(10L, TEN_AM, TEN_AM.plusDays(1), TEN_AM.plusDays(1).plusHours(2), List.of(1L))));
+
+        // Then
+        assertTrue(viewHasWorkerFree(TEN_AM));
+        assertFalse(viewHasWorkerFree(TEN_AM.plusDays(1)));
+        assertTrue(startTimes(availabilityService.getAvailabilityCalendar(TEST_DATE)).contains(TEN_AM));
+        assertFalse(startTimes(availabilityService.getAvailabilityCalendar(nextDay)).contains(TEN_AM.plusDays(1)));
+    }
+
+    @Test
+    void testRolledBackBooking_ChangesNothing() {
+        // Given
+        assertFalse(startTimes(availabilityService.getAvailabilityCalendar(TEST_DATE)).contains(TEN_AM));
+
+        // When
+        context.getBean(TransactionTemplate.class).executeWithoutResult(status -> {
+            context.publishEvent(new BookingChangedEvent(10L, TEN_AM, TEN_AM.plusDays(1), TEN_AM.plusDays(1).plusHours(2), List.of(1L)));
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertFalse(viewHasWorkerFree(TEN_AM));
+        assertFalse(startTimes(availabilityService.getAvailabilityCalendar(TEST_DATE)).contains(TEN_AM));
+    }
+
+    @Test
+    void testRelayedBookingFromAnotherNode_TakesTheSlotEverywhere() {
+        // Given the next day is built and cached with the worker free at 10:00
+        LocalDate nextDay = TEST_DATE.plusDays(1);
+        assertTrue(startTimes(availabilityService.getAvailabilityCalendar(nextDay)).contains(TEN_AM.plusDays(1)));
+
+        // When the outbox relays a booking another node committed, outside any transaction here
+        context.publishEvent(new BookingEvent(20L, 20L, BookingEvent.Type.BOOKING_CREATED, 11L, null,
+                TEN_AM.plusDays(1), TEN_AM.plusDays(1).plusHours(2), List.of(1L), TEN_AM));
+
+        // Then
+        assertFalse(context.getBean(WorkerScheduleIndex.class).isFree(1L, TEN_AM.plusDays(1), TEN_AM.plusDays(1).plusHours(2)));
+        assertFalse(startTimes(availabilityService.getAvailabilityCalendar(nextDay)).contains(TEN_AM.plusDays(1)));
+    }
+
+    private boolean viewHasWorkerFree(LocalDateTime startTime) {
+        int slot = (startTime.getHour() * 60 + startTime.getMinute()) / IWorkerScheduleIndex.SLOT_MINUTES;
+        return (slotAvailabilityView.crewStartSlots(startTime.toLocalDate(), 2, 1) & 1L << slot) != 0;
+    }
+
+    private static List<LocalDateTime> startTimes(AvailabilityCalendar calendar) {
+        return calendar.entries().stream()
+                .filter(entry -> entry.duration() == 2 && entry.workersRequired() == 1)
+                .findFirst()
+                .orElseThrow()
+                .startTimes();
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class ListenerConfig {
+
+        @Bean
+        WorkerRepository workerRepository() {
+            Worker worker = Worker.builder()
+                    .id(1L)
+                    .name("Worker 1")
+                    .available(true)
+                    .workingHours(WorkingHours.parse("08:00-22:00"))
+                    .workingOnFridays(true)
+                    .vehicle(Vehicle.builder().id(1L).name("Vehicle 1").build())
+                    .build();
+            WorkerRepository workerRepository = mock(WorkerRepository.class);
+            when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(List.of(worker));
+            return workerRepository;
+        }
+
+        @Bean
+        WorkerScheduleRepository workerScheduleRepository() {
+            // worker 1 is booked 10:00-12:00 on the test date
+            WorkerScheduleRepository workerScheduleRepository = mock(WorkerScheduleRepository.class);
+            when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                    .thenAnswer(invocation -> {
+                        Collection<Long> workerIds = invocation.getArgument(0);
+                        LocalDateTime from = invocation.getArgument(1);
+                        LocalDateTime to = invocation.getArgument(2);
+                        return workerIds.contains(1L) && !TEN_AM.isBefore(from) && TEN_AM.isBefore(to)
+                                ? List.of(new BookingInterval(1L, 10L, TEN_AM, TEN_AM.plusHours(2)))
+                                : List.of();
+                    });
+            return workerScheduleRepository;
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        WorkerScheduleIndex workerScheduleIndex(WorkerScheduleRepository workerScheduleRepository) {
+            return new WorkerScheduleIndex(workerScheduleRepository, 90);
+        }
+
+        @Bean
+        SlotAvailabilityView slotAvailabilityView(WorkerRepository workerRepository, WorkerScheduleIndex workerScheduleIndex) {
+            return new SlotAvailabilityView(workerRepository, workerScheduleIndex, 90);
+        }
+
+        @Bean
+        CheckAvailabilityService checkAvailabilityService(WorkerRepository workerRepository,
+                                                          WorkerScheduleRepository workerScheduleRepository,
+                                                          WorkerScheduleIndex workerScheduleIndex,
+                                                          SlotAvailabilityView slotAvailabilityView,
+                                                          MeterRegistry meterRegistry) {
+            return new CheckAvailabilityService(workerRepository, mock(BookingDetailRepository.class), workerScheduleRepository,
+                    workerScheduleIndex, slotAvailabilityView, meterRegistry);
+        }
+
+        @Bean
+        CachingCheckAvailabilityService cachingCheckAvailabilityService(CheckAvailabilityService checkAvailabilityService,
+                                                                        MeterRegistry meterRegistry) {
+            return new CachingCheckAvailabilityService(checkAvailabilityService, meterRegistry, 100, 60);
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager() {
+            return new NoOpTransactionManager();
+        }
+
+        @Bean
+        TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+            return new TransactionTemplate(transactionManager);
+        }
+    }
+
+    /**
+     * Drives transaction synchronization, and so the after-commit listeners, without a database.
+     */
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.model.BookingOutboxEntry;
+import com.justlife.bookingservice.repository.BookingOutboxRepository;
+import com.justlife.bookingservice.service.IBookingEventSink;
+import com.justlife.bookingservice.service.IBookingOutbox;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Publishes from two transactions that write their entries in one order and commit in the other.
+ */
+@SpringBootTest(properties = "booking.scheduling.enabled=false")
+@Testcontainers(disabledWithoutDocker = true)
+class BookingOutboxOrderTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    private static final List<BookingEvent> published = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private IBookingOutbox bookingOutbox;
+
+    @Autowired
+    private BookingOutboxRepository bookingOutboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + postgres.getHost() + ":"
+                + postgres.getFirstMappedPort() + "/" + postgres.getDatabaseName() + "?schema=bookingschema");
+    }
+
+    @TestConfiguration
+    static class RecordingSinkConfig {
+
+        @Bean
+        IBookingEventSink recordingSink() {
+            return published::add;
+        }
+    }
+
+    @Test
+    void testPublishPending_NumbersEntriesInCommitOrderNotIdOrder() throws Exception {
+        // Given a transaction that writes its entry first and commits last
+        CountDownLatch firstWritten = new CountDownLatch(1);
+        CountDownLatch firstReleased = new CountDownLatch(1);
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            Long id = bookingOutboxRepository.saveAndFlush(createEntry(1L)).getId();
+            firstWritten.countDown();
+            await(firstReleased);
+            return id;
+        }));
+        assertTrue(firstWritten.await(10, TimeUnit.SECONDS));
+        Long secondId = transactionTemplate.execute(status -> bookingOutboxRepository.save(createEntry(2L)).getId());
+
+        // When the second one is published while the first is still open
+        bookingOutbox.publishPending();
+        firstReleased.countDown();
+        Long firstId = first.get(10, TimeUnit.SECONDS);
+        bookingOutbox.publishPending();
+
+        // Then
+        assertTrue(firstId < secondId);
+        assertEquals(List.of(secondId, firstId), published.stream().map(BookingEvent::eventId).toList());
+        assertTrue(published.get(0).publishSeq() < published.get(1).publishSeq());
+        assertEquals(published.get(1).publishSeq(),
+                bookingOutboxRepository.findById(firstId).orElseThrow().getPublishSeq());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BookingOutboxEntry createEntry(Long bookingId) {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 15, 10, 0);
+        return BookingOutboxEntry.builder()
+                .eventType(BookingEvent.Type.BOOKING_CREATED)
+                .bookingId(bookingId)
+                .startTime(startTime)
+                .endTime(startTime.plusHours(2))
+                .workerIds(List.of(1L))
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,187 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.event.BookingChangedEvent;
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.model.BookingOutboxEntry;
+import com.justlife.bookingservice.repository.BookingOutboxRepository;
+import com.justlife.bookingservice.service.IBookingEventSink;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingOutboxTest {
+
+    @Mock
+    private BookingOutboxRepository bookingOutboxRepository;
+
+    @Mock
+    private IBookingEventSink sink;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private BookingOutbox bookingOutbox;
+
+    private LocalDateTime testDateTime;
+
+    @BeforeEach
+    void setUp() {
+        bookingOutbox = new BookingOutbox(bookingOutboxRepository, List.of(sink), transactionTemplate, 2, 24);
+        testDateTime = LocalDateTime.of(2024, 1, 15, 10, 0);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void testRecord_NewBookingWrittenAsCreated() {
+        // When
+        bookingOutbox.record(new BookingChangedEvent(10L, null, testDateTime, testDateTime.plusHours(2), List.of(1L, 2L)));
+
+        // Then
+        ArgumentCaptor<BookingOutboxEntry> entry = ArgumentCaptor.forClass(BookingOutboxEntry.class);
+        verify(bookingOutboxRepository).save(entry.capture());
+        assertEquals(BookingEvent.Type.BOOKING_CREATED, entry.getValue().getEventType());
+        assertEquals(10L, entry.getValue().getBookingId());
+        assertEquals(testDateTime.plusHours(2), entry.getValue().getEndTime());
+        assertEquals(List.of(1L, 2L), entry.getValue().getWorkerIds());
+        assertNotNull(entry.getValue().getCreatedAt());
+        assertNull(entry.getValue().getPublishedAt());
+    }
+
+    @Test
+    void testRecord_RescheduledBookingWrittenAsUpdated() {
+        // When
+        bookingOutbox.record(new BookingChangedEvent(10L, testDateTime, testDateTime.plusDays(1),
+                testDateTime.plusDays(1).plusHours(2), List.of(1L)));
+
+        // Then
+        ArgumentCaptor<BookingOutboxEntry> entry = ArgumentCaptor.forClass(BookingOutboxEntry.class);
+        verify(bookingOutboxRepository).save(entry.capture());
+        assertEquals(BookingEvent.Type.BOOKING_UPDATED, entry.getValue().getEventType());
+        assertEquals(testDateTime, entry.getValue().getPreviousStartTime());
+    }
+
+    @Test
+    void testPublishPending_DrainsBatchesNumberingEntriesAsTheyArePublished() {
+        // Given three entries whose ids do not follow commit order, and a batch size of two
+        BookingOutboxEntry first = createEntry(51L);
+        BookingOutboxEntry second = createEntry(52L);
+        BookingOutboxEntry third = createEntry(10L);
+        when(bookingOutboxRepository.tryLockPublisher()).thenReturn(true);
+        when(bookingOutboxRepository.nextPublishSeq()).thenReturn(1L, 2L, 3L);
+        when(bookingOutboxRepository.findUnpublished(any(Limit.class)))
+                .thenReturn(List.of(first, second), List.of(third));
+
+        // When
+        int published = bookingOutbox.publishPending();
+
+        // Then
+        assertEquals(3, published);
+        ArgumentCaptor<BookingEvent> events = ArgumentCaptor.forClass(BookingEvent.class);
+        verify(sink, times(3)).publish(events.capture());
+        assertEquals(List.of(51L, 52L, 10L), events.getAllValues().stream().map(BookingEvent::eventId).toList());
+        assertEquals(List.of(1L, 2L, 3L), events.getAllValues().stream().map(BookingEvent::publishSeq).toList());
+        assertNotNull(third.getPublishedAt());
+        assertEquals(3L, third.getPublishSeq());
+        verify(transactionTemplate, times(2)).execute(any());
+    }
+
+    @Test
+    void testPublishPending_AnotherNodePublishing_PublishesNothing() {
+        // Given
+        when(bookingOutboxRepository.tryLockPublisher()).thenReturn(false);
+
+        // When
+        int published = bookingOutbox.publishPending();
+
+        // Then
+        assertEquals(0, published);
+        verify(bookingOutboxRepository, never()).findUnpublished(any(Limit.class));
+        verifyNoInteractions(sink);
+    }
+
+    @Test
+    void testPublishPending_FailedSinkStopsAndLeavesTheRestPending() {
+        // Given
+        BookingOutboxEntry first = createEntry(1L);
+        BookingOutboxEntry second = createEntry(2L);
+        when(bookingOutboxRepository.tryLockPublisher()).thenReturn(true);
+        when(bookingOutboxRepository.nextPublishSeq()).thenReturn(1L, 2L);
+        when(bookingOutboxRepository.findUnpublished(any(Limit.class))).thenReturn(List.of(first, second));
+        doNothing().doThrow(new IllegalStateException("Broker unavailable")).when(sink).publish(any(BookingEvent.class));
+
+        // When
+        int published = bookingOutbox.publishPending();
+
+        // Then
+        assertEquals(1, published);
+        assertNotNull(first.getPublishedAt());
+        assertNull(second.getPublishedAt());
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    void testPublishPending_RetriedEntryKeepsItsNumber() {
+        // Given an entry numbered by a publish that failed
+        BookingOutboxEntry retried = createEntry(2L);
+        retried.setPublishSeq(7L);
+        when(bookingOutboxRepository.tryLockPublisher()).thenReturn(true);
+        when(bookingOutboxRepository.findUnpublished(any(Limit.class))).thenReturn(List.of(retried));
+
+        // When
+        bookingOutbox.publishPending();
+
+        // Then
+        ArgumentCaptor<BookingEvent> event = ArgumentCaptor.forClass(BookingEvent.class);
+        verify(sink).publish(event.capture());
+        assertEquals(7L, event.getValue().publishSeq());
+        verify(bookingOutboxRepository, never()).nextPublishSeq();
+    }
+
+    @Test
+    void testPurgePublished_DeletesEntriesPastRetention() {
+        // Given
+        when(bookingOutboxRepository.deletePublishedBefore(any(LocalDateTime.class))).thenReturn(5);
+
+        // When
+        int deleted = bookingOutbox.purgePublished();
+
+        // Then
+        assertEquals(5, deleted);
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(bookingOutboxRepository).deletePublishedBefore(before.capture());
+        assertTrue(before.getValue().isBefore(LocalDateTime.now().minusHours(23)));
+    }
+
+    @Test
+    void testConstructor_NonPositiveBatchSize_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BookingOutbox(bookingOutboxRepository, List.of(sink), transactionTemplate, 0, 24));
+    }
+
+    private BookingOutboxEntry createEntry(Long id) {
+        return BookingOutboxEntry.builder()
+                .id(id)
+                .eventType(BookingEvent.Type.BOOKING_CREATED)
+                .bookingId(id * 10)
+                .startTime(testDateTime)
+                .endTime(testDateTime.plusHours(2))
+                .workerIds(List.of(1L))
+                .createdAt(testDateTime)
+                .build();
+    }
+}
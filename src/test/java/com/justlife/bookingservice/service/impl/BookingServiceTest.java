@@ -1,24 +1,44 @@
 package com.justlife.bookingservice.service.impl;
 
+import com.justlife.bookingservice.dto.BookingResult;
+import com.justlife.bookingservice.event.BookingChangedEvent;
 import com.justlife.bookingservice.model.Booking;
-import com.justlife.bookingservice.model.BookingDetail;
 import com.justlife.bookingservice.model.Vehicle;
 import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.WorkingHours;
+import com.justlife.bookingservice.model.projection.BookingDetailView;
 import com.justlife.bookingservice.repository.BookingDetailRepository;
+import com.justlife.bookingservice.model.projection.BookingInterval;
 import com.justlife.bookingservice.repository.BookingRepository;
+import com.justlife.bookingservice.repository.WorkerRepository;
+import com.justlife.bookingservice.repository.WorkerScheduleRepository;
 import com.justlife.bookingservice.service.ICheckAvailabilityService;
+import com.justlife.bookingservice.service.IWorkerLockManager;
+import com.justlife.bookingservice.service.IWorkerScheduleIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,9 +53,30 @@ class BookingServiceTest {
     @Mock
     private BookingDetailRepository bookingDetailRepository;
 
+    @Mock
+    private WorkerScheduleRepository workerScheduleRepository;
+
     @Mock
     private ICheckAvailabilityService availabilityCheckService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private WorkerRepository workerRepository;
+
+    @Mock
+    private IWorkerScheduleIndex workerScheduleIndex;
+
+    @Mock
+    private IWorkerLockManager workerLockManager;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -46,6 +87,10 @@ class BookingServiceTest {
     void setUp() {
         testBooking = createTestBooking();
         availableWorkers = createTestWorkers();
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(workerRepository.incrementVersions(anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
     }
 
     @Test
@@ -54,7 +99,7 @@ class BookingServiceTest {
         Booking savedBooking = createTestBooking();
         savedBooking.setId(1L);
 
-        when(availabilityCheckService.checkAvailabilityByDateTime(any(LocalDateTime.class), anyInt(), anyInt()))
+        when(availabilityCheckService.findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt()))
                 .thenReturn(availableWorkers);
         when(bookingRepository.save(any(Booking.class))).thenReturn(savedBooking);
 
@@ -67,9 +112,10 @@ class BookingServiceTest {
         assertEquals(2, result.getDuration());
         assertEquals(1, result.getRequiredWorkers());
 
-        verify(availabilityCheckService).checkAvailabilityByDateTime(any(LocalDateTime.class), eq(2), eq(1));
+        verify(availabilityCheckService).findAvailableCrew(any(LocalDateTime.class), eq(2), eq(1));
         verify(bookingRepository).save(any(Booking.class));
         verify(availabilityCheckService).updateWorkersAvailability(anyList(), any(Booking.class));
+        verify(eventPublisher).publishEvent(any(BookingChangedEvent.class));
     }
 
     @Test
@@ -101,37 +147,133 @@ class BookingServiceTest {
     @Test
     void testCreateBooking_NotEnoughWorkersAvailable_ThrowsException() {
         // Given
-        when(availabilityCheckService.checkAvailabilityByDateTime(any(LocalDateTime.class), anyInt(), anyInt()))
+        when(availabilityCheckService.findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt()))
                 .thenReturn(Collections.emptyList());
 
         // When & Then
         IllegalStateException exception = assertThrows(IllegalStateException.class,
                 () -> bookingService.createBooking(testBooking));
 
-        assertEquals("Not enough workers available for the provided time", exception.getMessage());
+        assertEquals("Not enough workers available from the same vehicle for the provided time", exception.getMessage());
         verify(bookingRepository, never()).save(any(Booking.class));
+        assertEquals(1.0, meterRegistry.get("booking.rejections").tag("reason", "not_enough_workers").counter().count());
     }
 
     @Test
-    void testCreateBooking_NotEnoughWorkersFromSameVehicle_ThrowsException() {
+    void testCreateBooking_AssignsCrewFromAvailabilityEngine() {
         // Given
         testBooking.setRequiredWorkers(2);
-        List<Worker> workersFromDifferentVehicles = Arrays.asList(
-                createTestWorker(1L, "Worker 1", 1L),
-                createTestWorker(2L, "Worker 2", 2L) // Different vehicle
+        List<Worker> crew = Arrays.asList(
+                createTestWorker(3L, "Worker 3", 2L),
+                createTestWorker(4L, "Worker 4", 2L)
         );
 
-        when(availabilityCheckService.checkAvailabilityByDateTime(any(LocalDateTime.class), anyInt(), anyInt()))
-                .thenReturn(workersFromDifferentVehicles);
+        when(availabilityCheckService.findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt()))
+                .thenReturn(crew);
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        bookingService.createBooking(testBooking);
+
+        // Then
+        verify(availabilityCheckService).findAvailableCrew(any(LocalDateTime.class), eq(2), eq(2));
+        verify(availabilityCheckService).updateWorkersAvailability(eq(crew), any(Booking.class));
+        verify(workerLockManager).lockUntilCompletion(List.of(3L, 4L));
+    }
+
+    @Test
+    void testCreateBooking_RetriesWhenWorkerBookedConcurrently() {
+        // Given
+        Booking savedBooking = createTestBooking();
+        savedBooking.setId(1L);
+
+        when(availabilityCheckService.findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt()))
+                .thenReturn(availableWorkers);
+        when(bookingRepository.save(any(Booking.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Worker.class, 1L))
+                .thenReturn(savedBooking);
+
+        // When
+        Booking result = bookingService.createBooking(testBooking);
+
+        // Then
+        assertEquals(1L, result.getId());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(availabilityCheckService, times(2)).findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt());
+        verify(workerRepository, times(2)).incrementVersions(List.of(1L, 2L));
+    }
+
+    @Test
+    void testCreateBooking_GivesUpAfterRepeatedConflicts() {
+        // Given
+        when(availabilityCheckService.findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt()))
+                .thenReturn(availableWorkers);
+        when(bookingRepository.save(any(Booking.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Worker.class, 1L));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> bookingService.createBooking(testBooking));
+
+        assertEquals("Workers were booked concurrently, please try again", exception.getMessage());
+        verify(transactionTemplate, times(3)).execute(any());
+    }
+
+    @Test
+    void testCreateBooking_LockTimeoutIsCountedAsRejection() {
+        // Given
+        when(availabilityCheckService.findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt()))
+                .thenReturn(availableWorkers);
+        doThrow(new CannotAcquireLockException("Workers are being booked by another request, please try again"))
+                .when(workerLockManager).lockUntilCompletion(anyCollection());
 
         // When & Then
         IllegalStateException exception = assertThrows(IllegalStateException.class,
                 () -> bookingService.createBooking(testBooking));
 
-        assertEquals("Not enough workers available from the same vehicle", exception.getMessage());
+        assertEquals("Workers are being booked by another request, please try again", exception.getMessage());
+        assertEquals(1.0, meterRegistry.get("booking.rejections").tag("reason", "lock_timeout").counter().count());
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void testCreateBooking_WorkerRemovedWhileBookingIsRetried() {
+        // Given
+        when(availabilityCheckService.findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt()))
+                .thenReturn(availableWorkers);
+        when(workerRepository.incrementVersions(anyCollection())).thenReturn(1);
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> bookingService.createBooking(testBooking));
+
+        verify(transactionTemplate, times(3)).execute(any());
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
+    @Test
+    void testCreateBooking_ConflictMissedByIndexIsRetried() {
+        // Given
+        Booking savedBooking = createTestBooking();
+        savedBooking.setId(1L);
+        LocalDateTime startTime = testBooking.getStartTime();
+        BookingInterval committedElsewhere = new BookingInterval(1L, 5L, startTime, startTime.plusHours(2));
+
+        when(availabilityCheckService.findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt()))
+                .thenReturn(availableWorkers);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(committedElsewhere), Collections.emptyList());
+        when(bookingRepository.save(any(Booking.class))).thenReturn(savedBooking);
+
+        // When
+        Booking result = bookingService.createBooking(testBooking);
+
+        // Then
+        assertEquals(1L, result.getId());
+        verify(workerScheduleIndex).evict(startTime.toLocalDate(), List.of(1L, 2L));
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+    }
+
     @Test
     void testUpdateBooking_Success() {
         // Given
@@ -144,9 +286,10 @@ class BookingServiceTest {
         updatedBooking.setRequiredWorkers(2);
 
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(existingBooking));
-        when(availabilityCheckService.checkAvailabilityByDateTime(any(LocalDateTime.class), anyInt(), anyInt()))
+        when(availabilityCheckService.findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt()))
                 .thenReturn(Arrays.asList(availableWorkers.get(0), availableWorkers.get(0))); // Same vehicle workers
         when(bookingRepository.save(any(Booking.class))).thenReturn(existingBooking);
+        when(bookingDetailRepository.findWorkerIdsByBookingId(bookingId)).thenReturn(List.of(1L));
 
         // When
         Booking result = bookingService.updateBooking(bookingId, updatedBooking);
@@ -159,7 +302,9 @@ class BookingServiceTest {
 
         verify(bookingRepository).findById(bookingId);
         verify(bookingRepository).save(any(Booking.class));
+        verify(workerScheduleRepository).reschedule(bookingId, existingBooking.getStartTime(), existingBooking.getStartTime().plusHours(4));
         verify(availabilityCheckService).updateWorkersAvailability(anyList(), any(Booking.class));
+        verify(eventPublisher).publishEvent(any(BookingChangedEvent.class));
     }
 
     @Test
@@ -191,39 +336,257 @@ class BookingServiceTest {
     }
 
     @Test
-    void testGetAllBookingDetails_Success() {
+    void testGetBookingDetails_Success() {
         // Given
-        List<BookingDetail> bookingDetails = Arrays.asList(
+        List<BookingDetailView> bookingDetails = Arrays.asList(
                 createTestBookingDetail(1L),
                 createTestBookingDetail(2L)
         );
 
-        when(bookingDetailRepository.findAll()).thenReturn(bookingDetails);
+        when(bookingDetailRepository.findPage(0L, null, null, null, Limit.of(100))).thenReturn(bookingDetails);
 
         // When
-        List<BookingDetail> result = bookingService.getAllBookingDetails();
+        List<BookingDetailView> result = bookingService.getBookingDetails(null, 100, null, null, null);
 
         // Then
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(bookingDetailRepository).findAll();
+        verify(bookingDetailRepository).findPage(0L, null, null, null, Limit.of(100));
     }
 
     @Test
-    void testGetAllBookingDetails_EmptyList() {
+    void testGetBookingDetails_EmptyList() {
         // Given
-        when(bookingDetailRepository.findAll()).thenReturn(Collections.emptyList());
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(bookingDetailRepository.findPage(anyLong(), any(), any(), any(), any(Limit.class))).thenReturn(Collections.emptyList());
 
         // When
-        List<BookingDetail> result = bookingService.getAllBookingDetails();
+        List<BookingDetailView> result = bookingService.getBookingDetails(42L, 10, from, null, 1L);
 
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(bookingDetailRepository).findAll();
+        verify(bookingDetailRepository).findPage(42L, 1L, from, null, Limit.of(10));
+    }
+
+    @Test
+    void testStreamBookingDetails_ConsumesEveryRow() {
+        // Given
+        List<BookingDetailView> bookingDetails = new ArrayList<>();
+        for (long id = 1; id <= 1200; id++) {
+            bookingDetails.add(createTestBookingDetail(id));
+        }
+        when(bookingDetailRepository.streamAll(null, null, null)).thenReturn(bookingDetails.stream());
+        List<Long> consumed = new ArrayList<>();
+
+        // When
+        bookingService.streamBookingDetails(null, null, null, bookingDetail -> consumed.add(bookingDetail.id()));
+
+        // Then
+        assertEquals(1200, consumed.size());
+        assertEquals(1L, consumed.get(0));
+        assertEquals(1200L, consumed.get(1199));
+    }
+
+    @Test
+    void testCreateBookings_AdmitsInStartTimeOrderAndReportsPerItem() {
+        // Given
+        Booking invalid = createTestBooking();
+        invalid.setDuration(3);
+        Booking afternoon = createTestBooking(LocalDateTime.of(2024, 1, 15, 14, 0), 2);
+        Booking morning = createTestBooking(LocalDateTime.of(2024, 1, 15, 10, 0), 2);
+        Booking morningClash = createTestBooking(LocalDateTime.of(2024, 1, 15, 10, 0), 1);
+
+        when(workerRepository.findCrewCandidates(false)).thenReturn(availableWorkers);
+        when(availabilityCheckService.findAvailableCrew(anyList(), any(LocalDateTime.class), anyInt(), anyInt(), any()))
+                .thenAnswer(invocation -> {
+                    List<Worker> workers = invocation.getArgument(0);
+                    int workersRequired = invocation.getArgument(3);
+                    Predicate<Worker> eligible = invocation.getArgument(4);
+                    List<Worker> crew = workers.stream().filter(eligible).limit(workersRequired).toList();
+                    return crew.size() == workersRequired ? crew : Collections.emptyList();
+                });
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        List<BookingResult> results = bookingService.createBookings(List.of(invalid, afternoon, morning, morningClash));
+
+        // Then
+        assertEquals(4, results.size());
+        assertFalse(results.get(0).success());
+        assertEquals("Invalid booking duration. Must be 2 or 4 hours.", results.get(0).error());
+        assertTrue(results.get(1).success());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 16, 0), results.get(1).booking().getEndTime());
+        assertTrue(results.get(2).success());
+        assertFalse(results.get(3).success());
+        assertEquals("Not enough workers available from the same vehicle for the provided time", results.get(3).error());
+        assertEquals(1.0, meterRegistry.get("booking.rejections").tag("reason", "invalid_request").counter().count());
+        assertEquals(1.0, meterRegistry.get("booking.rejections").tag("reason", "not_enough_workers").counter().count());
+
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(bookingRepository).saveAll(anyList());
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(availabilityCheckService, times(2)).updateWorkersAvailability(anyList(), any(Booking.class));
+        verify(eventPublisher, times(2)).publishEvent(any(BookingChangedEvent.class));
+    }
+
+    @Test
+    void testCreateBookings_ConcurrentBookingFallsBackToSingleAdmission() {
+        // Given
+        Booking savedBooking = createTestBooking();
+        savedBooking.setId(1L);
+        BookingInterval concurrent = new BookingInterval(1L, 99L, testBooking.getStartTime(), testBooking.getStartTime().plusHours(2));
+
+        when(workerRepository.findCrewCandidates(false)).thenReturn(availableWorkers);
+        when(availabilityCheckService.findAvailableCrew(anyList(), any(LocalDateTime.class), anyInt(), anyInt(), any()))
+                .thenReturn(availableWorkers.subList(0, 1));
+        when(availabilityCheckService.findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt()))
+                .thenReturn(availableWorkers.subList(1, 2));
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(concurrent))
+                .thenReturn(Collections.emptyList());
+        when(bookingRepository.save(any(Booking.class))).thenReturn(savedBooking);
+
+        // When
+        List<BookingResult> results = bookingService.createBookings(List.of(testBooking));
+
+        // Then
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).success());
+        assertEquals(1L, results.get(0).booking().getId());
+        verify(workerScheduleIndex).evict(eq(testBooking.getStartTime().toLocalDate()), eq(List.of(1L)));
+        verify(bookingRepository, never()).saveAll(anyList());
+        verify(bookingRepository).save(any(Booking.class));
+    }
+
+    @Test
+    void testCreateBookings_LockTimeoutFallsBackToSingleAdmission() {
+        // Given the chunk waits too long for a worker lock, the single admission gets it
+        Booking savedBooking = createTestBooking();
+        savedBooking.setId(1L);
+
+        when(workerRepository.findCrewCandidates(false)).thenReturn(availableWorkers);
+        when(availabilityCheckService.findAvailableCrew(anyList(), any(LocalDateTime.class), anyInt(), anyInt(), any()))
+                .thenReturn(availableWorkers.subList(0, 1));
+        when(availabilityCheckService.findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt()))
+                .thenReturn(availableWorkers.subList(0, 1));
+        doThrow(new CannotAcquireLockException("Workers are being booked by another request, please try again"))
+                .doNothing()
+                .when(workerLockManager).lockUntilCompletion(anyCollection());
+        when(bookingRepository.save(any(Booking.class))).thenReturn(savedBooking);
+
+        // When
+        List<BookingResult> results = bookingService.createBookings(List.of(testBooking));
+
+        // Then
+        assertEquals(1, results.size());
+        assertTrue(results.get(0).success());
+        verify(bookingRepository, never()).saveAll(anyList());
+        verify(bookingRepository).save(any(Booking.class));
+    }
+
+    @Test
+    void testCreateBookings_FallbackCountsEachRejectionOnce() {
+        // Given the chunk rejects one booking, then collides with a concurrent booking on the other
+        Booking unstaffed = createTestBooking(LocalDateTime.of(2024, 1, 15, 14, 0), 2);
+        BookingInterval concurrent = new BookingInterval(1L, 99L, testBooking.getStartTime(), testBooking.getStartTime().plusHours(2));
+
+        when(workerRepository.findCrewCandidates(false)).thenReturn(availableWorkers);
+        when(availabilityCheckService.findAvailableCrew(anyList(), any(LocalDateTime.class), anyInt(), anyInt(), any()))
+                .thenAnswer(invocation -> invocation.<Integer>getArgument(3) == 1 ? availableWorkers.subList(0, 1) : List.of());
+        when(availabilityCheckService.findAvailableCrew(any(LocalDateTime.class), anyInt(), anyInt()))
+                .thenAnswer(invocation -> invocation.<Integer>getArgument(2) == 1 ? availableWorkers.subList(1, 2) : List.of());
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(concurrent))
+                .thenReturn(Collections.emptyList());
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<BookingResult> results = bookingService.createBookings(List.of(testBooking, unstaffed));
+
+        // Then
+        assertTrue(results.get(0).success());
+        assertFalse(results.get(1).success());
+        assertEquals(1.0, meterRegistry.get("booking.rejections").tag("reason", "not_enough_workers").counter().count());
+    }
+
+    @Test
+    void testCreateBookings_FridayChunkReadsOnlyFridayWorkers() {
+        // Given
+        Booking friday = createTestBooking(LocalDateTime.of(2024, 1, 19, 10, 0), 1);
+        when(workerRepository.findCrewCandidates(true)).thenReturn(availableWorkers);
+        when(availabilityCheckService.findAvailableCrew(anyList(), any(LocalDateTime.class), anyInt(), anyInt(), any()))
+                .thenReturn(availableWorkers.subList(0, 1));
+
+        // When
+        List<BookingResult> results = bookingService.createBookings(List.of(friday));
+
+        // Then
+        assertTrue(results.get(0).success());
+        verify(workerRepository).findCrewCandidates(true);
+        verify(workerRepository, never()).findAll();
+    }
+
+    @Test
+    void testCreateBookings_NullBookingIsRejectedOnItsOwn() {
+        // Given
+        when(workerRepository.findCrewCandidates(false)).thenReturn(availableWorkers);
+        when(availabilityCheckService.findAvailableCrew(anyList(), any(LocalDateTime.class), anyInt(), anyInt(), any()))
+                .thenReturn(availableWorkers.subList(0, 1));
+
+        // When
+        List<BookingResult> results = bookingService.createBookings(Arrays.asList(null, testBooking));
+
+        // Then
+        assertFalse(results.get(0).success());
+        assertEquals("Booking is required", results.get(0).error());
+        assertTrue(results.get(1).success());
+    }
+
+    @Test
+    void testCreateBookings_ReadsCrewCandidatesOncePerImport() {
+        // Given more bookings than fit in one chunk
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            bookings.add(createTestBooking(LocalDateTime.of(2024, 1, 15, 8, 0).plusDays(i), 1));
+        }
+        when(workerRepository.findCrewCandidates(false)).thenReturn(availableWorkers);
+        when(availabilityCheckService.findAvailableCrew(anyList(), any(LocalDateTime.class), anyInt(), anyInt(), any()))
+                .thenReturn(availableWorkers.subList(0, 1));
+
+        // When
+        List<BookingResult> results = bookingService.createBookings(bookings);
+
+        // Then
+        assertTrue(results.stream().allMatch(BookingResult::success));
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(workerRepository, times(1)).findCrewCandidates(anyBoolean());
+    }
+
+    @Test
+    void testCreateBookings_NothingAdmissibleReadsNoWorkers() {
+        // Given
+        Booking invalid = createTestBooking();
+        invalid.setDuration(3);
+
+        // When
+        List<BookingResult> results = bookingService.createBookings(List.of(invalid));
+
+        // Then
+        assertFalse(results.get(0).success());
+        verifyNoInteractions(workerRepository);
     }
 
     // Helper methods
+    private Booking createTestBooking(LocalDateTime startTime, int requiredWorkers) {
+        return Booking.builder()
+                .startTime(startTime)
+                .duration(2)
+                .requiredWorkers(requiredWorkers)
+                .build();
+    }
+
     private Booking createTestBooking() {
         return Booking.builder()
                 .startTime(LocalDateTime.of(2024, 1, 15, 10, 0))
@@ -249,17 +612,14 @@ class BookingServiceTest {
                 .id(id)
                 .name(name)
                 .available(true)
-                .workingHours("08:00-22:00")
+                .workingHours(WorkingHours.parse("08:00-22:00"))
                 .workingOnFridays(false)
                 .vehicle(vehicle)
                 .build();
     }
 
-    private BookingDetail createTestBookingDetail(Long id) {
-        return BookingDetail.builder()
-                .id(id)
-                .booking(createTestBooking())
-                .worker(createTestWorker(1L, "Test Worker", 1L))
-                .build();
+    private BookingDetailView createTestBookingDetail(Long id) {
+        return new BookingDetailView(id, 1L, LocalDateTime.of(2024, 1, 15, 10, 0), LocalDateTime.of(2024, 1, 15, 12, 0),
+                2, 1, 1L, "Test Worker");
     }
 } 
\ No newline at end of file
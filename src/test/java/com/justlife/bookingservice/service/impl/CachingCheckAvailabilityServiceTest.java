@@ -0,0 +1,175 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.dto.AvailabilityCalendar;
+import com.justlife.bookingservice.event.BookingChangedEvent;
+import com.justlife.bookingservice.event.VehicleChangedEvent;
+import com.justlife.bookingservice.event.WorkerChangedEvent;
+import com.justlife.bookingservice.model.Worker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingCheckAvailabilityServiceTest {
+
+    @Mock
+    private CheckAvailabilityService delegate;
+
+    private MeterRegistry meterRegistry;
+
+    private CachingCheckAvailabilityService cachingService;
+
+    private LocalDateTime testDateTime;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cachingService = new CachingCheckAvailabilityService(delegate, meterRegistry, 100, 60);
+        testDateTime = LocalDateTime.of(2024, 1, 15, 10, 0);
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_RepeatedQueryIsServedFromCache() {
+        // Given
+        List<Worker> workers = List.of(Worker.builder().id(1L).build());
+        when(delegate.checkAvailabilityByDateTime(testDateTime, 2, 1)).thenReturn(workers);
+
+        // When
+        List<Worker> first = cachingService.checkAvailabilityByDateTime(testDateTime, 2, 1);
+        List<Worker> second = cachingService.checkAvailabilityByDateTime(testDateTime, 2, 1);
+
+        // Then
+        assertEquals(workers, first);
+        assertEquals(workers, second);
+        verify(delegate, times(1)).checkAvailabilityByDateTime(testDateTime, 2, 1);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "availability").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "availability").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testOnBookingChanged_EvictsOnlyClashingWindowsAndWholeDay() {
+        // Given
+        LocalDateTime evening = testDateTime.plusHours(8);
+        LocalDate otherDay = testDateTime.toLocalDate().plusDays(1);
+        when(delegate.checkAvailabilityByDateTime(any(LocalDateTime.class), anyInt(), anyInt())).thenReturn(List.of());
+        when(delegate.checkAvailabilityForDate(any(LocalDate.class), anyInt())).thenReturn(List.of());
+        cachingService.checkAvailabilityByDateTime(testDateTime, 2, 1);
+        cachingService.checkAvailabilityByDateTime(evening, 2, 1);
+        cachingService.checkAvailabilityForDate(testDateTime.toLocalDate(), 1);
+        cachingService.checkAvailabilityForDate(otherDay, 1);
+
+        // When a booking from 12:00 to 14:00 commits; the 10:00-12:00 window loses its break
+        cachingService.onBookingChanged(new BookingChangedEvent(10L, null, testDateTime.plusHours(2),
+                testDateTime.plusHours(4), List.of(1L)));
+        cachingService.checkAvailabilityByDateTime(testDateTime, 2, 1);
+        cachingService.checkAvailabilityByDateTime(evening, 2, 1);
+        cachingService.checkAvailabilityForDate(testDateTime.toLocalDate(), 1);
+        cachingService.checkAvailabilityForDate(otherDay, 1);
+
+        // Then
+        verify(delegate, times(2)).checkAvailabilityByDateTime(testDateTime, 2, 1);
+        verify(delegate, times(1)).checkAvailabilityByDateTime(evening, 2, 1);
+        verify(delegate, times(2)).checkAvailabilityForDate(testDateTime.toLocalDate(), 1);
+        verify(delegate, times(1)).checkAvailabilityForDate(otherDay, 1);
+    }
+
+    @Test
+    void testOnBookingChanged_EvictsEverythingOnPreviousDay() {
+        // Given
+        LocalDateTime evening = testDateTime.plusHours(8);
+        when(delegate.checkAvailabilityByDateTime(any(LocalDateTime.class), anyInt(), anyInt())).thenReturn(List.of());
+        cachingService.checkAvailabilityByDateTime(evening, 2, 1);
+
+        // When the booking moves from this morning to the next day
+        cachingService.onBookingChanged(new BookingChangedEvent(10L, testDateTime, testDateTime.plusDays(1),
+                testDateTime.plusDays(1).plusHours(2), List.of(1L)));
+        cachingService.checkAvailabilityByDateTime(evening, 2, 1);
+
+        // Then
+        verify(delegate, times(2)).checkAvailabilityByDateTime(evening, 2, 1);
+    }
+
+    @Test
+    void testOnBookingChanged_AnswerComputedDuringEvictionIsNotCached() throws Exception {
+        // Given an answer that is still being computed when a booking on its day commits
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        when(delegate.checkAvailabilityForDate(testDateTime.toLocalDate(), 1)).thenAnswer(invocation -> {
+            computing.countDown();
+            assertTrue(evicted.await(5, TimeUnit.SECONDS));
+            return List.of();
+        }).thenReturn(List.of());
+        CompletableFuture<List<Worker>> inFlight = CompletableFuture.supplyAsync(
+                () -> cachingService.checkAvailabilityForDate(testDateTime.toLocalDate(), 1));
+        assertTrue(computing.await(5, TimeUnit.SECONDS));
+
+        // When
+        cachingService.onBookingChanged(new BookingChangedEvent(10L, null, testDateTime, testDateTime.plusHours(2), List.of(1L)));
+        evicted.countDown();
+        inFlight.get(5, TimeUnit.SECONDS);
+        cachingService.checkAvailabilityForDate(testDateTime.toLocalDate(), 1);
+
+        // Then the stale answer was dropped and the next request recomputes
+        verify(delegate, times(2)).checkAvailabilityForDate(testDateTime.toLocalDate(), 1);
+    }
+
+    @Test
+    void testOnWorkerAndVehicleChanged_EvictEverything() {
+        // Given
+        when(delegate.checkAvailabilityForDate(any(LocalDate.class), anyInt())).thenReturn(List.of());
+        cachingService.checkAvailabilityForDate(testDateTime.toLocalDate(), 1);
+
+        // When
+        cachingService.onWorkerChanged(new WorkerChangedEvent(1L));
+        cachingService.checkAvailabilityForDate(testDateTime.toLocalDate(), 1);
+        cachingService.onVehicleChanged(new VehicleChangedEvent(1L));
+        cachingService.checkAvailabilityForDate(testDateTime.toLocalDate(), 1);
+
+        // Then
+        verify(delegate, times(3)).checkAvailabilityForDate(testDateTime.toLocalDate(), 1);
+    }
+
+    @Test
+    void testGetAvailabilityCalendar_CachedUntilBookingOnThatDay() {
+        // Given
+        LocalDate day = testDateTime.toLocalDate();
+        when(delegate.getAvailabilityCalendar(day)).thenReturn(new AvailabilityCalendar(day, List.of()));
+        cachingService.getAvailabilityCalendar(day);
+        cachingService.getAvailabilityCalendar(day);
+
+        // When
+        cachingService.onBookingChanged(new BookingChangedEvent(10L, null, testDateTime, testDateTime.plusHours(2), List.of(1L)));
+        cachingService.getAvailabilityCalendar(day);
+
+        // Then
+        verify(delegate, times(2)).getAvailabilityCalendar(day);
+    }
+
+    @Test
+    void testFindAvailableCrew_IsNeverCached() {
+        // Given
+        when(delegate.findAvailableCrew(testDateTime, 2, 1)).thenReturn(List.of());
+
+        // When
+        cachingService.findAvailableCrew(testDateTime, 2, 1);
+        cachingService.findAvailableCrew(testDateTime, 2, 1);
+
+        // Then
+        verify(delegate, times(2)).findAvailableCrew(testDateTime, 2, 1);
+    }
+}
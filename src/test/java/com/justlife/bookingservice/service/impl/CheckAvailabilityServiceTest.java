@@ -1,24 +1,35 @@
 package com.justlife.bookingservice.service.impl;
 
+import com.justlife.bookingservice.dto.AvailabilityCalendar;
 import com.justlife.bookingservice.model.Booking;
 import com.justlife.bookingservice.model.BookingDetail;
 import com.justlife.bookingservice.model.Vehicle;
 import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.WorkerSchedule;
+import com.justlife.bookingservice.model.WorkingHours;
+import com.justlife.bookingservice.model.projection.BookingInterval;
 import com.justlife.bookingservice.repository.BookingDetailRepository;
 import com.justlife.bookingservice.repository.WorkerRepository;
+import com.justlife.bookingservice.repository.WorkerScheduleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
 
+import static com.justlife.bookingservice.config.QueryBudget.assertQueriesAtMost;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -32,7 +43,15 @@ class CheckAvailabilityServiceTest {
     @Mock
     private BookingDetailRepository bookingDetailRepository;
 
-    @InjectMocks
+    @Mock
+    private WorkerScheduleRepository workerScheduleRepository;
+
+    private WorkerScheduleIndex workerScheduleIndex;
+
+    private SlotAvailabilityView slotAvailabilityView;
+
+    private MeterRegistry meterRegistry;
+
     private CheckAvailabilityService checkAvailabilityService;
 
     private List<Worker> testWorkers;
@@ -41,6 +60,11 @@ class CheckAvailabilityServiceTest {
 
     @BeforeEach
     void setUp() {
+        workerScheduleIndex = new WorkerScheduleIndex(workerScheduleRepository, 90);
+        meterRegistry = new SimpleMeterRegistry();
+        slotAvailabilityView = new SlotAvailabilityView(workerRepository, workerScheduleIndex, 90);
+        checkAvailabilityService = new CheckAvailabilityService(workerRepository, bookingDetailRepository, workerScheduleRepository,
+                workerScheduleIndex, slotAvailabilityView, meterRegistry);
         testWorkers = createTestWorkers();
         testDate = LocalDate.of(2024, 1, 15);
         testDateTime = LocalDateTime.of(2024, 1, 15, 10, 0);
@@ -50,8 +74,8 @@ class CheckAvailabilityServiceTest {
     void testCheckAvailabilityForDate_Success() {
         // Given
         int workersRequired = 2;
-        when(workerRepository.findAll()).thenReturn(testWorkers);
-        when(bookingDetailRepository.findByWorkerIdAndBookingStartTimeBetween(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(testWorkers);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
                 .thenReturn(Collections.emptyList());
 
         // When
@@ -60,16 +84,16 @@ class CheckAvailabilityServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(workerRepository).findAll();
-        verify(bookingDetailRepository, times(testWorkers.size()))
-                .findByWorkerIdAndBookingStartTimeBetween(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(workerRepository).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class));
+        verify(workerScheduleRepository, times(1))
+                .findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
     }
 
     @Test
     void testCheckAvailabilityForDate_NoWorkersAvailable() {
         // Given
         int workersRequired = 1;
-        when(workerRepository.findAll()).thenReturn(Collections.emptyList());
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(Collections.emptyList());
 
         // When
         List<Worker> result = checkAvailabilityService.checkAvailabilityForDate(testDate, workersRequired);
@@ -77,7 +101,7 @@ class CheckAvailabilityServiceTest {
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(workerRepository).findAll();
+        verify(workerRepository).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class));
     }
 
     @Test
@@ -89,7 +113,7 @@ class CheckAvailabilityServiceTest {
                 createTestWorker(1L, "Worker 1", false) // Not working on Fridays
         );
 
-        when(workerRepository.findAll()).thenReturn(workersNotWorkingFridays);
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(workersNotWorkingFridays);
 
         // When
         List<Worker> result = checkAvailabilityService.checkAvailabilityForDate(friday, workersRequired);
@@ -97,7 +121,7 @@ class CheckAvailabilityServiceTest {
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(workerRepository).findAll();
+        verify(workerRepository).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class));
     }
 
     @Test
@@ -105,8 +129,8 @@ class CheckAvailabilityServiceTest {
         // Given
         int duration = 2;
         int workersRequired = 1;
-        when(workerRepository.findAll()).thenReturn(testWorkers);
-        when(bookingDetailRepository.findByWorkerIdAndBookingStartTimeBetween(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(testWorkers);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
                 .thenReturn(Collections.emptyList());
 
         // When
@@ -115,10 +139,10 @@ class CheckAvailabilityServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(workerRepository).findAll();
-        // The service uses stream.limit(workersRequired), so it only checks availability for the first worker that meets criteria
-        verify(bookingDetailRepository, atLeastOnce())
-                .findByWorkerIdAndBookingStartTimeBetween(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(workerRepository).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class));
+        // All workers' bookings for the day are fetched in a single query
+        verify(workerScheduleRepository, times(1))
+                .findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
     }
 
     @Test
@@ -127,22 +151,12 @@ class CheckAvailabilityServiceTest {
         int duration = 2;
         int workersRequired = 1;
         
-        // Create a conflicting booking
-        Booking conflictingBooking = Booking.builder()
-                .startTime(testDateTime.minusHours(1))
-                .endTime(testDateTime.plusHours(1))
-                .build();
-        
-        BookingDetail conflictingBookingDetail = BookingDetail.builder()
-                .booking(conflictingBooking)
-                .worker(testWorkers.get(0))
-                .build();
+        // Create a conflicting booking for the first worker
+        BookingInterval conflictingInterval = new BookingInterval(1L, 1L, testDateTime.minusHours(1), testDateTime.plusHours(1));
 
-        when(workerRepository.findAll()).thenReturn(testWorkers);
-        when(bookingDetailRepository.findByWorkerIdAndBookingStartTimeBetween(eq(1L), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(Arrays.asList(conflictingBookingDetail));
-        when(bookingDetailRepository.findByWorkerIdAndBookingStartTimeBetween(eq(2L), any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(Collections.emptyList());
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(testWorkers);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(conflictingInterval));
 
         // When
         List<Worker> result = checkAvailabilityService.checkAvailabilityByDateTime(testDateTime, duration, workersRequired);
@@ -151,7 +165,72 @@ class CheckAvailabilityServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(2L, result.get(0).getId()); // Should return the second worker
-        verify(workerRepository).findAll();
+        verify(workerRepository).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class));
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_StopsReadingWorkersOnceEnoughFound() {
+        // Given a full first page of free workers
+        int duration = 2;
+        int workersRequired = 3;
+        List<Worker> firstPage = LongStream.rangeClosed(1, 200)
+                .mapToObj(id -> createTestWorker(id, "Worker " + id, true))
+                .toList();
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(firstPage);
+
+        // When
+        List<Worker> result = checkAvailabilityService.checkAvailabilityByDateTime(testDateTime, duration, workersRequired);
+
+        // Then
+        assertEquals(3, result.size());
+        verify(workerRepository).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class));
+        verify(workerRepository, never()).findByIdGreaterThanOrderByIdAsc(eq(200L), any(Limit.class));
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_ReadsNextPageWhenNeeded() {
+        // Given a full first page of busy workers and a second page with a free one
+        int duration = 2;
+        int workersRequired = 1;
+        List<Worker> firstPage = LongStream.rangeClosed(1, 200)
+                .mapToObj(id -> createTestWorker(id, "Worker " + id, true))
+                .toList();
+        List<BookingInterval> busyIntervals = LongStream.rangeClosed(1, 200)
+                .mapToObj(id -> new BookingInterval(id, id, testDateTime, testDateTime.plusHours(2)))
+                .toList();
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(firstPage);
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(eq(200L), any(Limit.class)))
+                .thenReturn(List.of(createTestWorker(201L, "Worker 201", true)));
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(busyIntervals, Collections.emptyList());
+
+        // When
+        List<Worker> result = checkAvailabilityService.checkAvailabilityByDateTime(testDateTime, duration, workersRequired);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(201L, result.get(0).getId());
+        verify(workerScheduleRepository, times(2))
+                .findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_RepeatedCheckServedFromIndex() {
+        // Given
+        int duration = 2;
+        int workersRequired = 2;
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(testWorkers);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        checkAvailabilityService.checkAvailabilityByDateTime(testDateTime, duration, workersRequired);
+        List<Worker> result = checkAvailabilityService.checkAvailabilityByDateTime(testDateTime.plusHours(4), duration, workersRequired);
+
+        // Then
+        assertEquals(2, result.size());
+        verify(workerScheduleRepository, times(1))
+                .findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
     }
 
     @Test
@@ -161,7 +240,7 @@ class CheckAvailabilityServiceTest {
         int duration = 2;
         int workersRequired = 1;
 
-        when(workerRepository.findAll()).thenReturn(testWorkers);
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(testWorkers);
 
         // When
         List<Worker> result = checkAvailabilityService.checkAvailabilityByDateTime(earlyMorning, duration, workersRequired);
@@ -169,7 +248,254 @@ class CheckAvailabilityServiceTest {
         // Then
         assertNotNull(result);
         assertTrue(result.isEmpty()); // No workers available outside working hours
-        verify(workerRepository).findAll();
+        verify(workerRepository).findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class));
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_CustomWorkingHours() {
+        // Given
+        int duration = 2;
+        int workersRequired = 2;
+        Worker afternoonWorker = createTestWorker(3L, "Worker 3", true);
+        afternoonWorker.setWorkingHours(WorkingHours.parse("12:00-18:00"));
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(Arrays.asList(testWorkers.get(0), afternoonWorker));
+
+        // When
+        List<Worker> morning = checkAvailabilityService.checkAvailabilityByDateTime(testDateTime, duration, workersRequired);
+        List<Worker> afternoon = checkAvailabilityService.checkAvailabilityByDateTime(testDateTime.plusHours(4), duration, workersRequired);
+
+        // Then
+        assertEquals(1, morning.size());
+        assertEquals(1L, morning.get(0).getId());
+        assertEquals(2, afternoon.size());
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_UnreadableWorkingHoursAreNeverAvailable() {
+        // Given
+        Worker overnightWorker = createTestWorker(3L, "Worker 3", true);
+        overnightWorker.setWorkingHours(WorkingHours.unreadable("22:00-06:00"));
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(Arrays.asList(testWorkers.get(0), overnightWorker));
+
+        // When
+        List<Worker> available = checkAvailabilityService.checkAvailabilityByDateTime(testDateTime, 2, 1);
+
+        // Then
+        assertEquals(List.of(1L), available.stream().map(Worker::getId).toList());
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_RecordsPhaseTimers() {
+        // Given
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(testWorkers);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        checkAvailabilityService.checkAvailabilityByDateTime(testDateTime, 2, 1);
+
+        // Then
+        assertEquals(1, meterRegistry.get("booking.availability.phase").tag("phase", "worker_load").timer().count());
+        assertEquals(1, meterRegistry.get("booking.availability.phase").tag("phase", "schedule_load").timer().count());
+        assertEquals(1, meterRegistry.get("booking.availability.phase").tag("phase", "evaluation").timer().count());
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_GivenWorkersUseLoadedBookings() {
+        // Given
+        workerScheduleIndex.load(testDate, List.of(1L, 2L),
+                List.of(new BookingInterval(1L, 10L, testDateTime, testDateTime.plusHours(2))),
+                workerScheduleIndex.changeCount(testDate));
+
+        // When
+        List<Worker> result = checkAvailabilityService.checkAvailabilityByDateTime(testWorkers, testDateTime, 2, 2);
+
+        // Then
+        assertEquals(List.of(2L), result.stream().map(Worker::getId).toList());
+        verifyNoInteractions(workerRepository, workerScheduleRepository);
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_GivenWorkersLoadOnlyThePagesScanned() {
+        // Given a long list of free workers
+        List<Worker> workers = LongStream.rangeClosed(1, 1000)
+                .mapToObj(id -> createTestWorker(id, "Worker " + id, true, id))
+                .toList();
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        List<Worker> result = checkAvailabilityService.checkAvailabilityByDateTime(workers, testDateTime, 2, 2);
+        List<Worker> crew = checkAvailabilityService.findAvailableCrew(workers, testDateTime, 2, 1, worker -> worker.getId() > 300);
+
+        // Then only the first page is loaded for the check, and the second for the crew search
+        assertEquals(List.of(1L, 2L), result.stream().map(Worker::getId).toList());
+        assertEquals(List.of(301L), crew.stream().map(Worker::getId).toList());
+        ArgumentCaptor<List<Long>> loaded = ArgumentCaptor.forClass(List.class);
+        verify(workerScheduleRepository, times(2)).findBookingIntervals(loaded.capture(), any(LocalDateTime.class), any(LocalDateTime.class));
+        assertEquals(List.of(200, 200), loaded.getAllValues().stream().map(List::size).toList());
+        assertEquals(201L, loaded.getAllValues().get(1).get(0));
+    }
+
+    @Test
+    void testAvailabilityCheck_AtMostTwoQueries() throws Exception {
+        // Given
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(testWorkers);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+
+        // When & Then: one page of workers and one bulk load of their bookings, and no per-worker queries
+        assertQueriesAtMost(2, () -> checkAvailabilityService.checkAvailabilityByDateTime(testDateTime, 2, 2),
+                workerRepository, workerScheduleRepository, bookingDetailRepository);
+        assertQueriesAtMost(1, () -> checkAvailabilityService.checkAvailabilityForDate(testDate, 2),
+                workerRepository, workerScheduleRepository, bookingDetailRepository);
+    }
+
+    @Test
+    void testFindAvailableCrew_PicksFirstVehicleWithFullCrew() {
+        // Given
+        int duration = 2;
+        int workersRequired = 2;
+        List<Worker> workers = Arrays.asList(
+                createTestWorker(1L, "Worker 1", true, 1L),
+                createTestWorker(2L, "Worker 2", true, 2L),
+                createTestWorker(3L, "Worker 3", true, 1L),
+                createTestWorker(4L, "Worker 4", true, 2L)
+        );
+        // Worker 3 is busy, so vehicle 1 only has one free worker
+        BookingInterval busyInterval = new BookingInterval(3L, 1L, testDateTime, testDateTime.plusHours(2));
+
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(workers);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(busyInterval));
+
+        // When
+        List<Worker> result = checkAvailabilityService.findAvailableCrew(testDateTime, duration, workersRequired);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).getId());
+        assertEquals(4L, result.get(1).getId());
+    }
+
+    @Test
+    void testFindAvailableCrew_NoVehicleWithFullCrew() {
+        // Given
+        int duration = 2;
+        int workersRequired = 2;
+        List<Worker> workers = Arrays.asList(
+                createTestWorker(1L, "Worker 1", true, 1L),
+                createTestWorker(2L, "Worker 2", true, 2L)
+        );
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(workers);
+
+        // When
+        List<Worker> result = checkAvailabilityService.findAvailableCrew(testDateTime, duration, workersRequired);
+
+        // Then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void testFindAvailableCrew_ScansEvenWhenTheSlotViewSeesNoCrew() {
+        // Given a calendar read built the day while vehicle 1 had a single worker, and a second one was
+        // added on another node since
+        Worker added = createTestWorker(300L, "Worker 300", true, testWorkers.get(0).getVehicle().getId());
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(testWorkers.subList(0, 1), List.of(testWorkers.get(0), added));
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        checkAvailabilityService.getAvailabilityCalendar(testDate);
+        // no crew of two at 10:00, the slot starting 600 minutes after midnight
+        assertEquals(0L, slotAvailabilityView.crewStartSlots(testDate, 2, 2) & 1L << 20);
+
+        // When
+        List<Worker> result = checkAvailabilityService.findAvailableCrew(testDateTime, 2, 2);
+
+        // Then
+        assertEquals(List.of(testWorkers.get(0), added), result);
+    }
+
+    @Test
+    void testCheckAvailabilityForRange_LoadsOnceAndEvaluatesEveryDay() {
+        // Given worker 1 is booked on the second day
+        LocalDate to = testDate.plusDays(2);
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(testWorkers);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new BookingInterval(1L, 10L, testDateTime.plusDays(1), testDateTime.plusDays(1).plusHours(2))));
+
+        // When
+        Map<LocalDate, List<Worker>> result = checkAvailabilityService.checkAvailabilityForRange(testDate, to, 1);
+
+        // Then
+        assertEquals(List.of(testDate, testDate.plusDays(1), to), List.copyOf(result.keySet()));
+        assertEquals(1L, result.get(testDate).get(0).getId());
+        assertEquals(2L, result.get(testDate.plusDays(1)).get(0).getId());
+        assertEquals(1L, result.get(to).get(0).getId());
+        verify(workerScheduleRepository, times(1))
+                .findBookingIntervals(anyCollection(), eq(testDate.atStartOfDay()), eq(to.plusDays(1).atStartOfDay()));
+    }
+
+    @Test
+    void testCheckAvailabilityForRange_RangeTooLong_ThrowsException() {
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> checkAvailabilityService.checkAvailabilityForRange(testDate, testDate.plusDays(31), 1));
+
+        assertEquals("Date range must span 1 to 31 days", exception.getMessage());
+        verifyNoInteractions(workerRepository);
+    }
+
+    @Test
+    void testGetAvailabilityCalendar_OnePassOverWorkers() {
+        // Given workers 1 and 2 share vehicle 1, worker 3 drives alone; worker 1 is booked 10:00-12:00
+        List<Worker> workers = List.of(testWorkers.get(0), testWorkers.get(1), createTestWorker(3L, "Worker 3", true, 2L));
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(workers);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new BookingInterval(1L, 10L, testDateTime, testDateTime.plusHours(2))));
+
+        // When
+        AvailabilityCalendar calendar = checkAvailabilityService.getAvailabilityCalendar(testDate);
+
+        // Then
+        assertEquals(testDate, calendar.date());
+        assertEquals(6, calendar.entries().size());
+        AvailabilityCalendar.CalendarEntry twoHoursOneWorker = calendar.entries().get(0);
+        assertEquals(2, twoHoursOneWorker.duration());
+        assertEquals(1, twoHoursOneWorker.workersRequired());
+        assertEquals(25, twoHoursOneWorker.startTimes().size());
+        assertEquals(testDate.atTime(8, 0), twoHoursOneWorker.startTimes().get(0));
+        assertEquals(testDate.atTime(20, 0), twoHoursOneWorker.startTimes().get(24));
+
+        List<LocalDateTime> twoHoursTwoWorkers = calendar.entries().get(1).startTimes();
+        assertEquals(16, twoHoursTwoWorkers.size());
+        assertEquals(testDate.atTime(12, 30), twoHoursTwoWorkers.get(0));
+        assertTrue(calendar.entries().get(2).startTimes().isEmpty());
+
+        AvailabilityCalendar.CalendarEntry fourHoursOneWorker = calendar.entries().get(3);
+        assertEquals(4, fourHoursOneWorker.duration());
+        assertEquals(21, fourHoursOneWorker.startTimes().size());
+        assertEquals(testDate.atTime(12, 30), calendar.entries().get(4).startTimes().get(0));
+        assertEquals(testDate.atTime(18, 0), calendar.entries().get(4).startTimes().get(11));
+
+        verify(workerScheduleRepository, times(1))
+                .findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testGetAvailabilityCalendar_SkipsWorkersOffThatDay() {
+        // Given a Friday and workers that do not work on Fridays
+        LocalDate friday = LocalDate.of(2024, 1, 19);
+        List<Worker> workers = List.of(createTestWorker(1L, "Worker 1", false), createTestWorker(2L, "Worker 2", false));
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(workers);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        AvailabilityCalendar calendar = checkAvailabilityService.getAvailabilityCalendar(friday);
+
+        // Then
+        assertTrue(calendar.entries().stream().allMatch(entry -> entry.startTimes().isEmpty()));
     }
 
     @Test
@@ -185,13 +511,24 @@ class CheckAvailabilityServiceTest {
 
         List<Worker> workers = Arrays.asList(testWorkers.get(0), testWorkers.get(1));
 
-        when(bookingDetailRepository.save(any(BookingDetail.class))).thenReturn(new BookingDetail());
-
         // When
         checkAvailabilityService.updateWorkersAvailability(workers, booking);
 
         // Then
-        verify(bookingDetailRepository, times(2)).save(any(BookingDetail.class));
+        ArgumentCaptor<List<BookingDetail>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bookingDetailRepository).saveAll(captor.capture());
+        verify(bookingDetailRepository, never()).save(any(BookingDetail.class));
+        assertEquals(2, captor.getValue().size());
+        assertSame(booking, captor.getValue().get(0).getBooking());
+        assertEquals(2L, captor.getValue().get(1).getWorker().getId());
+
+        ArgumentCaptor<List<WorkerSchedule>> scheduleCaptor = ArgumentCaptor.forClass(List.class);
+        verify(workerScheduleRepository).saveAll(scheduleCaptor.capture());
+        assertEquals(2, scheduleCaptor.getValue().size());
+        assertEquals(2L, scheduleCaptor.getValue().get(1).getWorkerId());
+        assertEquals(1L, scheduleCaptor.getValue().get(1).getBookingId());
+        assertEquals(testDateTime, scheduleCaptor.getValue().get(1).getStartTime());
+        assertEquals(testDateTime.plusHours(2), scheduleCaptor.getValue().get(1).getEndTime());
     }
 
     @Test
@@ -210,6 +547,7 @@ class CheckAvailabilityServiceTest {
 
         // Then
         verify(bookingDetailRepository, never()).save(any(BookingDetail.class));
+        verify(bookingDetailRepository).saveAll(Collections.emptyList());
     }
 
     // Helper methods
@@ -221,8 +559,12 @@ class CheckAvailabilityServiceTest {
     }
 
     private Worker createTestWorker(Long id, String name, boolean workingOnFridays) {
+        return createTestWorker(id, name, workingOnFridays, 1L);
+    }
+
+    private Worker createTestWorker(Long id, String name, boolean workingOnFridays, Long vehicleId) {
         Vehicle vehicle = Vehicle.builder()
-                .id(1L)
+                .id(vehicleId)
                 .name("Test Vehicle")
                 .build();
 
@@ -230,7 +572,7 @@ class CheckAvailabilityServiceTest {
                 .id(id)
                 .name(name)
                 .available(true)
-                .workingHours("08:00-22:00")
+                .workingHours(WorkingHours.parse("08:00-22:00"))
                 .workingOnFridays(workingOnFridays)
                 .vehicle(vehicle)
                 .build();
@@ -0,0 +1,197 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.model.Vehicle;
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.projection.BookingInterval;
+import com.justlife.bookingservice.repository.reactive.ReactiveBookingDetailRepository;
+import com.justlife.bookingservice.repository.reactive.ReactiveWorkerRepository;
+import com.justlife.bookingservice.repository.reactive.ReactiveWorkerScheduleRepository;
+import com.justlife.bookingservice.service.ICheckAvailabilityService;
+import com.justlife.bookingservice.service.IWorkerScheduleIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveQueryServiceTest {
+
+    @Mock
+    private ReactiveWorkerRepository reactiveWorkerRepository;
+
+    @Mock
+    private ReactiveWorkerScheduleRepository reactiveWorkerScheduleRepository;
+
+    @Mock
+    private ReactiveBookingDetailRepository reactiveBookingDetailRepository;
+
+    @Mock
+    private IWorkerScheduleIndex workerScheduleIndex;
+
+    @Mock
+    private ICheckAvailabilityService availabilityCheckService;
+
+    @InjectMocks
+    private ReactiveQueryService reactiveQueryService;
+
+    private LocalDateTime testDateTime;
+
+    private Worker worker1;
+
+    private Worker worker2;
+
+    @BeforeEach
+    void setUp() {
+        testDateTime = LocalDateTime.of(2024, 1, 15, 10, 0);
+        Vehicle vehicle = Vehicle.builder().id(1L).name("Vehicle 1").build();
+        worker1 = Worker.builder().id(1L).name("Worker 1").vehicle(vehicle).build();
+        worker2 = Worker.builder().id(2L).name("Worker 2").vehicle(vehicle).build();
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_LoadsMissingBookingsThenSharesTheCheck() {
+        // Given
+        LocalDate day = testDateTime.toLocalDate();
+        List<BookingInterval> intervals = List.of(new BookingInterval(2L, 10L, testDateTime, testDateTime.plusHours(2)));
+        when(reactiveWorkerRepository.findPage(0L, 200)).thenReturn(Flux.just(worker1, worker2));
+        when(workerScheduleIndex.missing(day, List.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+        when(workerScheduleIndex.changeCount(day)).thenReturn(5L);
+        when(reactiveWorkerScheduleRepository.findBookingIntervals(List.of(1L, 2L), day.atStartOfDay(), day.plusDays(1).atStartOfDay()))
+                .thenReturn(Flux.fromIterable(intervals));
+        when(workerScheduleIndex.load(day, List.of(1L, 2L), intervals, 5L)).thenReturn(true);
+        when(availabilityCheckService.checkAvailabilityByDateTime(List.of(worker1, worker2), testDateTime, 2, 1))
+                .thenReturn(List.of(worker1));
+
+        // When
+        List<Worker> result = reactiveQueryService.checkAvailabilityByDateTime(testDateTime, 2, 1).collectList().block();
+
+        // Then
+        assertEquals(List.of(worker1), result);
+        verify(workerScheduleIndex).load(day, List.of(1L, 2L), intervals, 5L);
+    }
+
+    @Test
+    void testCheckAvailabilityForDate_LoadedWorkersAreNotReadAgain() {
+        // Given
+        LocalDate day = testDateTime.toLocalDate();
+        when(reactiveWorkerRepository.findPage(0L, 200)).thenReturn(Flux.just(worker1, worker2));
+        when(workerScheduleIndex.missing(day, List.of(1L, 2L))).thenReturn(Collections.emptyList());
+        when(availabilityCheckService.checkAvailabilityForDate(List.of(worker1, worker2), day, 2))
+                .thenReturn(List.of(worker1, worker2));
+
+        // When
+        List<Worker> result = reactiveQueryService.checkAvailabilityForDate(day, 2).collectList().block();
+
+        // Then
+        assertEquals(List.of(worker1, worker2), result);
+        verifyNoInteractions(reactiveWorkerScheduleRepository);
+        verify(workerScheduleIndex, never()).load(any(), anyCollection(), anyList(), anyLong());
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_BookingsReadAgainWhenAChangeLandsMeanwhile() {
+        // Given
+        LocalDate day = testDateTime.toLocalDate();
+        when(reactiveWorkerRepository.findPage(0L, 200)).thenReturn(Flux.just(worker1));
+        when(workerScheduleIndex.missing(day, List.of(1L))).thenReturn(List.of(1L));
+        when(workerScheduleIndex.changeCount(day)).thenReturn(0L, 1L);
+        when(reactiveWorkerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Flux.empty());
+        when(workerScheduleIndex.load(day, List.of(1L), Collections.emptyList(), 0L)).thenReturn(false);
+        when(workerScheduleIndex.load(day, List.of(1L), Collections.emptyList(), 1L)).thenReturn(true);
+        when(availabilityCheckService.checkAvailabilityByDateTime(List.of(worker1), testDateTime, 2, 1))
+                .thenReturn(List.of(worker1));
+
+        // When
+        List<Worker> result = reactiveQueryService.checkAvailabilityByDateTime(testDateTime, 2, 1).collectList().block();
+
+        // Then
+        assertEquals(List.of(worker1), result);
+        verify(reactiveWorkerScheduleRepository, times(2))
+                .findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_IndexLoadsTheDayOnceReadsKeepLosingTheRace() {
+        // Given a booking change lands during every read
+        LocalDate day = testDateTime.toLocalDate();
+        when(reactiveWorkerRepository.findPage(0L, 200)).thenReturn(Flux.just(worker1));
+        when(workerScheduleIndex.missing(day, List.of(1L))).thenReturn(List.of(1L));
+        when(reactiveWorkerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Flux.empty());
+        when(workerScheduleIndex.load(eq(day), anyCollection(), anyList(), anyLong())).thenReturn(false);
+        when(availabilityCheckService.checkAvailabilityByDateTime(List.of(worker1), testDateTime, 2, 1))
+                .thenReturn(List.of(worker1));
+
+        // When
+        List<Worker> result = reactiveQueryService.checkAvailabilityByDateTime(testDateTime, 2, 1).collectList().block();
+
+        // Then
+        assertEquals(List.of(worker1), result);
+        verify(reactiveWorkerScheduleRepository, times(3))
+                .findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(workerScheduleIndex).preload(day, List.of(1L));
+    }
+
+    @Test
+    void testCheckAvailabilityForDate_CheckRunsOffTheEventLoop() {
+        // Given a check that may load an evicted worker-day over JDBC
+        LocalDate day = testDateTime.toLocalDate();
+        AtomicReference<String> checkThread = new AtomicReference<>();
+        when(reactiveWorkerRepository.findPage(0L, 200)).thenReturn(Flux.just(worker1));
+        when(workerScheduleIndex.missing(day, List.of(1L))).thenReturn(Collections.emptyList());
+        when(availabilityCheckService.checkAvailabilityForDate(List.of(worker1), day, 1)).thenAnswer(invocation -> {
+            checkThread.set(Thread.currentThread().getName());
+            return List.of(worker1);
+        });
+
+        // When
+        List<Worker> result = reactiveQueryService.checkAvailabilityForDate(day, 1).collectList().block();
+
+        // Then
+        assertEquals(List.of(worker1), result);
+        assertTrue(checkThread.get().startsWith("boundedElastic"), checkThread.get());
+    }
+
+    @Test
+    void testCheckAvailabilityByDateTime_StopsReadingOnceEnoughWorkersFound() {
+        // Given every page is full, so the workers never run out
+        List<Worker> fullPage = Collections.nCopies(200, worker1);
+        when(reactiveWorkerRepository.findPage(anyLong(), eq(200))).thenReturn(Flux.fromIterable(fullPage));
+        when(workerScheduleIndex.missing(any(LocalDate.class), anyCollection())).thenReturn(Collections.emptyList());
+        when(availabilityCheckService.checkAvailabilityByDateTime(fullPage, testDateTime, 2, 1)).thenReturn(List.of(worker1));
+
+        // When
+        List<Worker> result = reactiveQueryService.checkAvailabilityByDateTime(testDateTime, 2, 1).collectList().block();
+
+        // Then
+        assertEquals(List.of(worker1), result);
+        verify(reactiveWorkerRepository, atMost(3)).findPage(anyLong(), anyInt());
+    }
+
+    @Test
+    void testGetBookingDetails_StartsFromTheFirstPage() {
+        // Given
+        when(reactiveBookingDetailRepository.findPage(0L, null, null, null, 100)).thenReturn(Flux.empty());
+
+        // When
+        List<?> result = reactiveQueryService.getBookingDetails(null, 100, null, null, null).collectList().block();
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(reactiveBookingDetailRepository).findPage(0L, null, null, null, 100);
+    }
+}
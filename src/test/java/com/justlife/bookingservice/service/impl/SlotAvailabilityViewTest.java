@@ -0,0 +1,198 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.event.BookingChangedEvent;
+import com.justlife.bookingservice.event.VehicleChangedEvent;
+import com.justlife.bookingservice.event.WorkerChangedEvent;
+import com.justlife.bookingservice.model.Vehicle;
+import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.WorkingHours;
+import com.justlife.bookingservice.model.projection.BookingInterval;
+import com.justlife.bookingservice.repository.WorkerRepository;
+import com.justlife.bookingservice.repository.WorkerScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotAvailabilityViewTest {
+
+    // the slot starting at 10:00
+    private static final int TEN_AM = 20;
+
+    @Mock
+    private WorkerRepository workerRepository;
+
+    @Mock
+    private WorkerScheduleRepository workerScheduleRepository;
+
+    private WorkerScheduleIndex workerScheduleIndex;
+
+    private SlotAvailabilityView slotAvailabilityView;
+
+    private LocalDate testDate;
+    private LocalDateTime testDateTime;
+
+    @BeforeEach
+    void setUp() {
+        workerScheduleIndex = new WorkerScheduleIndex(workerScheduleRepository, 90);
+        slotAvailabilityView = new SlotAvailabilityView(workerRepository, workerScheduleIndex, 90);
+        testDate = LocalDate.of(2024, 1, 15);
+        testDateTime = testDate.atTime(10, 0);
+    }
+
+    @Test
+    void testCrewStartSlots_CountsFreeWorkersPerVehicle() {
+        // Given workers 1 and 2 share vehicle 1, worker 3 drives vehicle 2 and is booked 10:00-12:00
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(List.of(
+                createTestWorker(1L, 1L), createTestWorker(2L, 1L), createTestWorker(3L, 2L)));
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new BookingInterval(3L, 10L, testDateTime, testDateTime.plusHours(2))));
+
+        // When & Then
+        assertTrue(hasCrew(2, 2, TEN_AM));
+        // three workers are free from 12:30, but not three of the same vehicle
+        assertFalse(hasCrew(2, 3, TEN_AM + 5));
+        assertFalse(hasCrew(2, 1, 42));
+        assertEquals(0L, slotAvailabilityView.crewStartSlots(testDate, 4, 3));
+        verify(workerRepository, times(1)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void testOnBookingChanged_UpdatesOnlyTheBookedWorkers() {
+        // Given
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(List.of(
+                createTestWorker(1L, 1L), createTestWorker(2L, 1L)));
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        assertTrue(hasCrew(2, 2, TEN_AM));
+
+        // When the index applies a committed booking first, then the view
+        BookingChangedEvent event = new BookingChangedEvent(10L, null, testDateTime, testDateTime.plusHours(2), List.of(1L));
+        workerScheduleIndex.onBookingChanged(event);
+        slotAvailabilityView.onBookingChanged(event);
+
+        // Then
+        assertTrue(hasCrew(2, 1, TEN_AM));
+        assertFalse(hasCrew(2, 2, TEN_AM));
+        verify(workerRepository, times(1)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+        verify(workerScheduleRepository, times(1))
+                .findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testOnBookingChanged_RescheduleFreesPreviousDay() {
+        // Given worker 1 is booked 10:00-12:00
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(List.of(createTestWorker(1L, 1L)));
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new BookingInterval(1L, 10L, testDateTime, testDateTime.plusHours(2))));
+        assertFalse(hasCrew(2, 1, TEN_AM));
+
+        // When the booking moves to the next day
+        BookingChangedEvent event = new BookingChangedEvent(10L, testDateTime, testDateTime.plusDays(1),
+                testDateTime.plusDays(1).plusHours(2), List.of(1L));
+        workerScheduleIndex.onBookingChanged(event);
+        slotAvailabilityView.onBookingChanged(event);
+
+        // Then
+        assertTrue(hasCrew(2, 1, TEN_AM));
+    }
+
+    @Test
+    void testOnWorkerChanged_RecomputesWorkingHours() {
+        // Given
+        Worker worker = createTestWorker(1L, 1L);
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(List.of(worker));
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        assertTrue(hasCrew(2, 1, TEN_AM));
+
+        // When the worker now starts at noon
+        worker.setWorkingHours(WorkingHours.parse("12:00-22:00"));
+        when(workerRepository.findById(1L)).thenReturn(Optional.of(worker));
+        slotAvailabilityView.onWorkerChanged(new WorkerChangedEvent(1L));
+
+        // Then
+        assertFalse(hasCrew(2, 1, TEN_AM));
+        assertTrue(hasCrew(2, 1, 24));
+    }
+
+    @Test
+    void testOnWorkerChanged_DeletedWorkerLeavesTheCrew() {
+        // Given
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(List.of(createTestWorker(1L, 1L)));
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        slotAvailabilityView.crewStartSlots(testDate, 2, 1);
+
+        // When
+        when(workerRepository.findById(1L)).thenReturn(Optional.empty());
+        slotAvailabilityView.onWorkerChanged(new WorkerChangedEvent(1L));
+
+        // Then
+        assertEquals(0L, slotAvailabilityView.crewStartSlots(testDate, 2, 1));
+    }
+
+    @Test
+    void testOnVehicleChanged_RebuildsOnNextRead() {
+        // Given
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(List.of(createTestWorker(1L, 1L)));
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        slotAvailabilityView.crewStartSlots(testDate, 2, 1);
+
+        // When
+        slotAvailabilityView.onVehicleChanged(new VehicleChangedEvent(1L));
+        slotAvailabilityView.crewStartSlots(testDate, 2, 1);
+
+        // Then
+        verify(workerRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void testPurgePastDays_RebuildsOnNextRead() {
+        // Given
+        when(workerRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenReturn(List.of(createTestWorker(1L, 1L)));
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        slotAvailabilityView.crewStartSlots(testDate, 2, 1);
+
+        // When
+        slotAvailabilityView.purgePastDays();
+        slotAvailabilityView.crewStartSlots(testDate, 2, 1);
+        verify(workerRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void testCrewStartSlots_UnknownDuration_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> slotAvailabilityView.crewStartSlots(testDate, 3, 1));
+        verifyNoInteractions(workerRepository);
+    }
+
+    private boolean hasCrew(int duration, int crewSize, int slot) {
+        return (slotAvailabilityView.crewStartSlots(testDate, duration, crewSize) & 1L << slot) != 0;
+    }
+
+    private Worker createTestWorker(Long id, Long vehicleId) {
+        return Worker.builder()
+                .id(id)
+                .name("Worker " + id)
+                .available(true)
+                .workingHours(WorkingHours.parse("08:00-22:00"))
+                .workingOnFridays(true)
+                .vehicle(Vehicle.builder().id(vehicleId).name("Vehicle " + vehicleId).build())
+                .build();
+    }
+}
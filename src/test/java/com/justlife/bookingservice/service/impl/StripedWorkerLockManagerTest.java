@@ -0,0 +1,138 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.service.IWorkerLockManager.StripeStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedWorkerLockManagerTest {
+
+    private StripedWorkerLockManager workerLockManager;
+
+    @BeforeEach
+    void setUp() {
+        workerLockManager = new StripedWorkerLockManager(true, 4, 200);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testLockUntilCompletion_HeldUntilTransactionCompletes() throws Exception {
+        // Given
+        workerLockManager.lockUntilCompletion(List.of(1L, 2L));
+
+        // When another transaction asks for one of the same workers
+        CompletableFuture<Void> otherBooking = CompletableFuture.runAsync(() -> inTransaction(List.of(2L)));
+
+        // Then it waits, and gets the lock once this transaction completes
+        assertThrows(Exception.class, () -> otherBooking.get(100, TimeUnit.MILLISECONDS));
+        completeTransaction();
+        otherBooking.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testLockUntilCompletion_DifferentStripesDoNotBlock() throws Exception {
+        // Given
+        workerLockManager.lockUntilCompletion(List.of(1L));
+
+        // When & Then
+        CompletableFuture.runAsync(() -> inTransaction(List.of(2L))).get(1, TimeUnit.SECONDS);
+        completeTransaction();
+    }
+
+    @Test
+    void testLockUntilCompletion_TimesOutAndRecordsStats() {
+        // Given
+        workerLockManager.lockUntilCompletion(List.of(1L));
+
+        // When
+        CompletableFuture<Void> otherBooking = CompletableFuture.runAsync(() -> inTransaction(List.of(5L)));
+
+        // Then
+        Exception exception = assertThrows(Exception.class, () -> otherBooking.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(CannotAcquireLockException.class, exception.getCause());
+        completeTransaction();
+
+        StripeStats stats = workerLockManager.getStripeStats().get(1);
+        assertEquals(1, stats.acquisitions());
+        assertEquals(1, stats.timeouts());
+        assertTrue(stats.totalWaitNanos() > 0);
+        assertTrue(stats.totalHoldNanos() > 0);
+    }
+
+    @Test
+    void testBindTo_PublishesStatsPerStripe() {
+        // Given
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        workerLockManager.bindTo(meterRegistry);
+
+        // When workers 1 and 2 are locked, which land on stripes 1 and 2
+        workerLockManager.lockUntilCompletion(List.of(1L, 2L));
+        completeTransaction();
+
+        // Then
+        assertEquals(4, meterRegistry.get("booking.worker.locks.wait").functionTimers().size());
+        assertEquals(1, meterRegistry.get("booking.worker.locks.wait").tag("stripe", "1").functionTimer().count());
+        assertEquals(1, meterRegistry.get("booking.worker.locks.hold").tag("stripe", "2").functionTimer().count());
+        assertEquals(0, meterRegistry.get("booking.worker.locks.hold").tag("stripe", "0").functionTimer().count());
+        assertEquals(0.0, meterRegistry.get("booking.worker.locks.timeouts").tag("stripe", "1").functionCounter().count());
+    }
+
+    @Test
+    void testLockUntilCompletion_RequiresTransaction() {
+        // Given
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> workerLockManager.lockUntilCompletion(List.of(1L)));
+    }
+
+    @Test
+    void testLockUntilCompletion_DisabledIsNoOp() {
+        // Given
+        StripedWorkerLockManager disabled = new StripedWorkerLockManager(false, 4, 200);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        // When
+        disabled.lockUntilCompletion(List.of(1L));
+
+        // Then
+        assertEquals(0, disabled.getStripeStats().get(1).acquisitions());
+    }
+
+    // Helper methods
+    private void inTransaction(List<Long> workerIds) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            workerLockManager.lockUntilCompletion(workerIds);
+            completeTransaction();
+        } finally {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+    }
+
+    private void completeTransaction() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+}
@@ -1,5 +1,6 @@
 package com.justlife.bookingservice.service.impl;
 
+import com.justlife.bookingservice.event.VehicleChangedEvent;
 import com.justlife.bookingservice.model.Vehicle;
 import com.justlife.bookingservice.repository.VehicleRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,6 +9,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -24,6 +26,9 @@ class VehicleServiceTest {
     @Mock
     private VehicleRepository vehicleRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private VehicleService vehicleService;
 
@@ -80,6 +85,7 @@ class VehicleServiceTest {
         assertEquals(2L, result.getId());
         assertEquals("New Vehicle", result.getName());
         verify(vehicleRepository).save(newVehicle);
+        verify(eventPublisher).publishEvent(any(VehicleChangedEvent.class));
     }
 
     @Test
@@ -134,6 +140,7 @@ class VehicleServiceTest {
         assertTrue(result);
         verify(vehicleRepository).findById(vehicleId);
         verify(vehicleRepository).deleteById(vehicleId);
+        verify(eventPublisher).publishEvent(new VehicleChangedEvent(vehicleId));
     }
 
     @Test
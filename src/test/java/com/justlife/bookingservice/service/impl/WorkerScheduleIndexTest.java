@@ -0,0 +1,290 @@
+package com.justlife.bookingservice.service.impl;
+
+import com.justlife.bookingservice.event.BookingChangedEvent;
+import com.justlife.bookingservice.event.BookingEvent;
+import com.justlife.bookingservice.model.projection.BookingInterval;
+import com.justlife.bookingservice.repository.WorkerScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkerScheduleIndexTest {
+
+    @Mock
+    private WorkerScheduleRepository workerScheduleRepository;
+
+    private WorkerScheduleIndex workerScheduleIndex;
+
+    private LocalDateTime testDateTime;
+
+    @BeforeEach
+    void setUp() {
+        workerScheduleIndex = new WorkerScheduleIndex(workerScheduleRepository, 90);
+        testDateTime = LocalDateTime.of(2024, 1, 15, 10, 0);
+    }
+
+    @Test
+    void testIsFree_LoadsWorkerDayOnce() {
+        // Given
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        boolean first = workerScheduleIndex.isFree(1L, testDateTime, testDateTime.plusHours(2));
+        boolean second = workerScheduleIndex.isFree(1L, testDateTime.plusHours(4), testDateTime.plusHours(6));
+
+        // Then
+        assertTrue(first);
+        assertTrue(second);
+        verify(workerScheduleRepository, times(1))
+                .findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testIsFree_RespectsBreakAroundExistingBooking() {
+        // Given
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new BookingInterval(1L, 10L, testDateTime, testDateTime.plusHours(2))));
+
+        // When & Then
+        assertFalse(workerScheduleIndex.isFree(1L, testDateTime.plusHours(2), testDateTime.plusHours(4)));
+        assertFalse(workerScheduleIndex.isFree(1L, testDateTime.minusHours(2), testDateTime));
+        assertTrue(workerScheduleIndex.isFree(1L, testDateTime.plusHours(2).plusMinutes(30), testDateTime.plusHours(4).plusMinutes(30)));
+        assertTrue(workerScheduleIndex.isFree(1L, testDateTime.minusHours(2).minusMinutes(30), testDateTime.minusMinutes(30)));
+    }
+
+    @Test
+    void testIsFree_UnalignedBookingAndRequestTimes() {
+        // Given a booking from 10:15 to 12:15
+        LocalDateTime bookingStart = testDateTime.plusMinutes(15);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new BookingInterval(1L, 10L, bookingStart, bookingStart.plusHours(2))));
+
+        // When & Then
+        assertTrue(workerScheduleIndex.isFree(1L, testDateTime.plusHours(3), testDateTime.plusHours(5)));
+        assertFalse(workerScheduleIndex.isFree(1L, testDateTime.plusHours(2).plusMinutes(30), testDateTime.plusHours(4).plusMinutes(30)));
+        assertTrue(workerScheduleIndex.isFree(1L, testDateTime.plusHours(2).plusMinutes(45), testDateTime.plusHours(4).plusMinutes(45)));
+        assertFalse(workerScheduleIndex.isFree(1L, testDateTime.plusHours(2).plusMinutes(40), testDateTime.plusHours(4).plusMinutes(40)));
+        assertTrue(workerScheduleIndex.isFree(1L, testDateTime.minusHours(2), testDateTime.minusMinutes(15)));
+        assertFalse(workerScheduleIndex.isFree(1L, testDateTime.minusHours(2), testDateTime));
+    }
+
+    @Test
+    void testPreloadRange_LoadsEveryDayInOneQuery() {
+        // Given
+        LocalDate from = testDateTime.toLocalDate();
+        LocalDate to = from.plusDays(2);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new BookingInterval(1L, 10L, testDateTime.plusDays(1), testDateTime.plusDays(1).plusHours(2))));
+
+        // When
+        workerScheduleIndex.preload(from, to, List.of(1L, 2L));
+
+        // Then
+        assertTrue(workerScheduleIndex.isFree(1L, testDateTime, testDateTime.plusHours(2)));
+        assertFalse(workerScheduleIndex.isFree(1L, testDateTime.plusDays(1), testDateTime.plusDays(1).plusHours(2)));
+        assertTrue(workerScheduleIndex.isFree(2L, testDateTime.plusDays(1), testDateTime.plusDays(1).plusHours(2)));
+        assertTrue(workerScheduleIndex.isFree(1L, testDateTime.plusDays(2), testDateTime.plusDays(2).plusHours(2)));
+        verify(workerScheduleRepository, times(1))
+                .findBookingIntervals(List.of(1L, 2L), from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+
+    @Test
+    void testBusySlots_CoverBookingAndBreaks() {
+        // Given a booking from 10:00 to 12:00, so 09:30 to 12:30 is busy
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new BookingInterval(1L, 10L, testDateTime, testDateTime.plusHours(2))));
+
+        // When
+        long busySlots = workerScheduleIndex.busySlots(1L, testDateTime.toLocalDate());
+
+        // Then
+        assertEquals(0b111111L << 19, busySlots);
+    }
+
+    @Test
+    void testOnBookingChanged_NewBookingAppliedToLoadedDay() {
+        // Given
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        assertTrue(workerScheduleIndex.isFree(1L, testDateTime, testDateTime.plusHours(2)));
+
+        // When
+        workerScheduleIndex.onBookingChanged(new BookingChangedEvent(10L, null, testDateTime, testDateTime.plusHours(2), List.of(1L)));
+
+        // Then
+        assertFalse(workerScheduleIndex.isFree(1L, testDateTime, testDateTime.plusHours(2)));
+        verify(workerScheduleRepository, times(1))
+                .findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testOnBookingChanged_RescheduledBookingFreesPreviousSlot() {
+        // Given
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new BookingInterval(1L, 10L, testDateTime, testDateTime.plusHours(2))));
+        assertFalse(workerScheduleIndex.isFree(1L, testDateTime, testDateTime.plusHours(2)));
+
+        // When
+        LocalDateTime newStart = testDateTime.plusHours(6);
+        workerScheduleIndex.onBookingChanged(new BookingChangedEvent(10L, testDateTime, newStart, newStart.plusHours(2), List.of(1L)));
+
+        // Then
+        assertTrue(workerScheduleIndex.isFree(1L, testDateTime, testDateTime.plusHours(2)));
+        assertFalse(workerScheduleIndex.isFree(1L, newStart, newStart.plusHours(2)));
+    }
+
+    @Test
+    void testOnBookingEvent_RelayOfAChangeAlreadyAppliedChangesNothing() {
+        // Given a booking this node committed and applied
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        workerScheduleIndex.preload(testDateTime.toLocalDate(), List.of(1L));
+        workerScheduleIndex.onBookingChanged(new BookingChangedEvent(10L, null, testDateTime, testDateTime.plusHours(2), List.of(1L)));
+
+        // When the outbox relays it back, and the booking is then moved
+        workerScheduleIndex.onBookingEvent(new BookingEvent(7L, 7L, BookingEvent.Type.BOOKING_CREATED, 10L, null,
+                testDateTime, testDateTime.plusHours(2), List.of(1L), testDateTime));
+        LocalDateTime newStart = testDateTime.plusHours(6);
+        workerScheduleIndex.onBookingChanged(new BookingChangedEvent(10L, testDateTime, newStart, newStart.plusHours(2), List.of(1L)));
+
+        // Then the booking was held once, so moving it frees its old slot
+        assertTrue(workerScheduleIndex.isFree(1L, testDateTime, testDateTime.plusHours(2)));
+        assertFalse(workerScheduleIndex.isFree(1L, newStart, newStart.plusHours(2)));
+    }
+
+    @Test
+    void testOnBookingChanged_UnloadedDayIsIgnored() {
+        // When
+        workerScheduleIndex.onBookingChanged(new BookingChangedEvent(10L, null, testDateTime, testDateTime.plusHours(2), List.of(1L)));
+
+        // Then
+        verifyNoInteractions(workerScheduleRepository);
+    }
+
+    @Test
+    void testLoad_InstallsBookingsReadByTheCaller() {
+        // Given
+        LocalDate day = testDateTime.toLocalDate();
+        long changeCount = workerScheduleIndex.changeCount(day);
+
+        // When
+        boolean loaded = workerScheduleIndex.load(day, List.of(1L, 2L),
+                List.of(new BookingInterval(1L, 10L, testDateTime, testDateTime.plusHours(2))), changeCount);
+
+        // Then
+        assertTrue(loaded);
+        assertEquals(List.of(3L), workerScheduleIndex.missing(day, List.of(1L, 2L, 3L)));
+        assertFalse(workerScheduleIndex.isFree(1L, testDateTime, testDateTime.plusHours(2)));
+        assertTrue(workerScheduleIndex.isFree(2L, testDateTime, testDateTime.plusHours(2)));
+        verifyNoInteractions(workerScheduleRepository);
+    }
+
+    @Test
+    void testLoad_RejectedWhenABookingChangedMeanwhile() {
+        // Given
+        LocalDate day = testDateTime.toLocalDate();
+        long changeCount = workerScheduleIndex.changeCount(day);
+        workerScheduleIndex.onBookingChanged(new BookingChangedEvent(10L, null, testDateTime, testDateTime.plusHours(2), List.of(1L)));
+
+        // When
+        boolean loaded = workerScheduleIndex.load(day, List.of(1L), Collections.emptyList(), changeCount);
+
+        // Then
+        assertFalse(loaded);
+        assertEquals(List.of(1L), workerScheduleIndex.missing(day, List.of(1L)));
+    }
+
+    @Test
+    void testLoad_RejectedWithoutWaitingWhileAJdbcLoadHoldsTheDay() throws Exception {
+        // Given a JDBC load of the day blocked inside its query
+        LocalDate day = testDateTime.toLocalDate();
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch queryReleased = new CountDownLatch(1);
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    queryStarted.countDown();
+                    queryReleased.await();
+                    return Collections.emptyList();
+                });
+        CompletableFuture<Void> jdbcLoad = CompletableFuture.runAsync(() -> workerScheduleIndex.preload(day, List.of(2L)));
+        assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+        long changeCount = workerScheduleIndex.changeCount(day);
+
+        // When
+        boolean loaded = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> workerScheduleIndex.load(day, List.of(1L), Collections.emptyList(), changeCount));
+
+        // Then
+        queryReleased.countDown();
+        jdbcLoad.get(5, TimeUnit.SECONDS);
+        assertFalse(loaded);
+        assertEquals(List.of(1L), workerScheduleIndex.missing(day, List.of(1L)));
+    }
+
+    @Test
+    void testPurgePastDays_DropsLoadedPastDays() {
+        // Given
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        LocalDate today = LocalDate.now();
+        workerScheduleIndex.preload(testDateTime.toLocalDate(), List.of(1L));
+        workerScheduleIndex.preload(today, List.of(1L));
+
+        // When
+        workerScheduleIndex.purgePastDays();
+
+        // Then
+        assertEquals(List.of(1L), workerScheduleIndex.missing(testDateTime.toLocalDate(), List.of(1L)));
+        assertTrue(workerScheduleIndex.missing(today, List.of(1L)).isEmpty());
+    }
+
+    @Test
+    void testLoad_RejectedWhenTheDayWasDroppedMeanwhile() {
+        // Given a change count taken before the day is dropped
+        LocalDate day = testDateTime.toLocalDate();
+        long changeCount = workerScheduleIndex.changeCount(day);
+        workerScheduleIndex.purgePastDays();
+
+        // When
+        boolean loaded = workerScheduleIndex.load(day, List.of(1L), Collections.emptyList(), changeCount);
+
+        // Then
+        assertFalse(loaded);
+        assertEquals(List.of(1L), workerScheduleIndex.missing(day, List.of(1L)));
+    }
+
+    @Test
+    void testPreload_LoadsOnlyMissingWorkersInOneQuery() {
+        // Given
+        when(workerScheduleRepository.findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new BookingInterval(2L, 10L, testDateTime, testDateTime.plusHours(2))));
+        workerScheduleIndex.preload(testDateTime.toLocalDate(), List.of(1L));
+
+        // When
+        workerScheduleIndex.preload(testDateTime.toLocalDate(), List.of(1L, 2L, 3L));
+
+        // Then
+        verify(workerScheduleRepository).findBookingIntervals(eq(List.of(2L, 3L)), any(LocalDateTime.class), any(LocalDateTime.class));
+        assertFalse(workerScheduleIndex.isFree(2L, testDateTime, testDateTime.plusHours(2)));
+        assertTrue(workerScheduleIndex.isFree(3L, testDateTime, testDateTime.plusHours(2)));
+        verify(workerScheduleRepository, times(2))
+                .findBookingIntervals(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+}
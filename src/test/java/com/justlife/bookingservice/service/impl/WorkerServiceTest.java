@@ -1,7 +1,9 @@
 package com.justlife.bookingservice.service.impl;
 
+import com.justlife.bookingservice.event.WorkerChangedEvent;
 import com.justlife.bookingservice.model.Vehicle;
 import com.justlife.bookingservice.model.Worker;
+import com.justlife.bookingservice.model.WorkingHours;
 import com.justlife.bookingservice.repository.WorkerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -25,6 +28,9 @@ class WorkerServiceTest {
     @Mock
     private WorkerRepository workerRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private WorkerService workerService;
 
@@ -82,6 +88,7 @@ class WorkerServiceTest {
         assertEquals("Jane Smith", result.getName());
         assertTrue(result.isAvailable());
         verify(workerRepository).save(newWorker);
+        verify(eventPublisher).publishEvent(any(WorkerChangedEvent.class));
     }
 
     @Test
@@ -106,6 +113,25 @@ class WorkerServiceTest {
         verify(workerRepository).save(any(Worker.class));
     }
 
+    @Test
+    void testUpdateWorker_KeepsCurrentVersion() {
+        // Given
+        Long workerId = 1L;
+        Worker existingWorker = createTestWorker(workerId, "John Doe");
+        existingWorker.setVersion(7L);
+        Worker updateWorker = createTestWorker(null, "John Updated");
+
+        when(workerRepository.findById(workerId)).thenReturn(Optional.of(existingWorker));
+        when(workerRepository.save(any(Worker.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        Optional<Worker> result = workerService.updateWorker(workerId, updateWorker);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(7L, result.get().getVersion());
+    }
+
     @Test
     void testUpdateWorker_NotFound() {
         // Given
@@ -136,6 +162,7 @@ class WorkerServiceTest {
         assertTrue(result);
         verify(workerRepository).findById(workerId);
         verify(workerRepository).deleteById(workerId);
+        verify(eventPublisher).publishEvent(new WorkerChangedEvent(workerId));
     }
 
     @Test
@@ -199,7 +226,7 @@ class WorkerServiceTest {
                 .id(id)
                 .name(name)
                 .available(true)
-                .workingHours("08:00-22:00")
+                .workingHours(WorkingHours.parse("08:00-22:00"))
                 .workingOnFridays(false)
                 .vehicle(vehicle)
                 .build();